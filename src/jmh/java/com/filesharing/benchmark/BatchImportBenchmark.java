@@ -0,0 +1,112 @@
+package com.filesharing.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.TextEntity;
+import com.filesharing.service.FileService;
+import com.filesharing.service.TextService;
+
+// 批量导入大量小文件和短文本，结果为每秒导入的条目数；逐个保存与一次批量保存对比
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BatchImportBenchmark {
+
+	private static final int ITEMS = 1000;
+
+	@Param({"1024"})
+	public long fileSize;
+
+	private Path root;
+
+	private ConfigurableApplicationContext context;
+
+	private FileService fileService;
+
+	private TextService textService;
+
+	private List<MultipartFile> files;
+
+	private List<String> contents;
+
+	private List<String> remarks;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmh-batch-import");
+		context = BenchmarkApplication.start(root);
+		fileService = context.getBean(FileService.class);
+		textService = context.getBean(TextService.class);
+		byte[] block = Payloads.block("bin");
+		files = new ArrayList<>(ITEMS);
+		contents = new ArrayList<>(ITEMS);
+		for (int i = 0; i < ITEMS; i++) {
+			files.add(new SyntheticMultipartFile("import-" + i + ".bin", block, fileSize));
+			contents.add("imported note " + i);
+		}
+		remarks = Collections.nCopies(ITEMS, "import");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		context.close();
+		BenchmarkApplication.deleteRecursively(root);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITEMS)
+	public FileEntity storeFilesOneByOne() throws IOException {
+		FileEntity last = null;
+		for (MultipartFile file : files) {
+			last = fileService.storeFile(file, "import", null);
+		}
+		return last;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITEMS)
+	public List<FileEntity> storeFilesInBatch() throws IOException {
+		return fileService.storeFiles(files, "import", null, null, null, null);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITEMS)
+	public TextEntity storeTextsOneByOne() {
+		TextEntity last = null;
+		for (int i = 0; i < ITEMS; i++) {
+			last = textService.storeText(contents.get(i), remarks.get(i), null);
+		}
+		return last;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ITEMS)
+	public List<TextEntity> storeTextsInBatch() {
+		return textService.storeTexts(contents, remarks, null, null);
+	}
+}
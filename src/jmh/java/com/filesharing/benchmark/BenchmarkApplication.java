@@ -0,0 +1,46 @@
+package com.filesharing.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.filesharing.FileSharingApplication;
+
+// 启动不带Web服务器的完整应用上下文，使用内存数据库和临时存储目录
+final class BenchmarkApplication {
+
+	private BenchmarkApplication() {
+	}
+
+	static ConfigurableApplicationContext start(Path storageRoot) {
+		return new SpringApplicationBuilder(FileSharingApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+						"spring.jpa.hibernate.ddl-auto=create",
+						"spring.jpa.show-sql=false",
+						"spring.h2.console.enabled=false",
+						"app.storage.local-root=" + storageRoot.resolve("blobs"),
+						"app.upload.session-dir=" + storageRoot.resolve("sessions"),
+						"app.upload.max-file-size=2048",
+						"logging.level.root=WARN")
+				.run();
+	}
+
+	static void deleteRecursively(Path root) throws IOException {
+		if (!Files.exists(root)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
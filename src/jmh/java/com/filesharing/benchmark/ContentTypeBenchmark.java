@@ -0,0 +1,34 @@
+package com.filesharing.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.filesharing.service.FileService;
+
+// 根据扩展名推断Content-Type，不依赖任何注入的组件
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContentTypeBenchmark {
+
+	@Param({"report.pdf", "Budget.XLSX", "archive.tar.gz", "README"})
+	public String fileName;
+
+	private final FileService fileService = new FileService();
+
+	@Benchmark
+	public String resolveContentType() {
+		return fileService.resolveContentType(fileName, null);
+	}
+}
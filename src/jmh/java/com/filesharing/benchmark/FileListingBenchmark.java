@@ -0,0 +1,86 @@
+package com.filesharing.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Slice;
+
+import com.filesharing.model.FileSummary;
+import com.filesharing.repository.ListQuery;
+import com.filesharing.service.FileService;
+import com.filesharing.util.CursorUtil;
+
+// 文件列表的延迟不应随已存储的内容大小增长，列表只查询元数据列
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class FileListingBenchmark {
+
+	@Param({"1000"})
+	public int files;
+
+	@Param({"1024", "1048576"})
+	public long fileSize;
+
+	private Path root;
+
+	private ConfigurableApplicationContext context;
+
+	private FileService fileService;
+
+	private String deepCursor;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmh-listing");
+		context = BenchmarkApplication.start(root);
+		fileService = context.getBean(FileService.class);
+		byte[] block = Payloads.block("bin");
+		for (int i = 0; i < files; i++) {
+			String name = (i % 2 == 0 ? "report-" : "photo-") + i + ".bin";
+			fileService.storeFile(new SyntheticMultipartFile(name, block, fileSize), "remark " + i, null);
+		}
+		// 从第一页最大条数之后开始翻页
+		Slice<FileSummary> page = fileService.getFiles(ListQuery.of(null, ListQuery.MAX_LIMIT, null, null, null, null));
+		FileSummary last = page.getContent().get(page.getContent().size() - 1);
+		deepCursor = CursorUtil.encode(last.getCreateTime(), last.getId());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		context.close();
+		BenchmarkApplication.deleteRecursively(root);
+	}
+
+	@Benchmark
+	public Slice<FileSummary> firstPage() {
+		return fileService.getFiles(ListQuery.of(null, null, null, null, null, null));
+	}
+
+	@Benchmark
+	public Slice<FileSummary> pageFromCursor() {
+		return fileService.getFiles(ListQuery.of(deepCursor, null, null, null, null, null));
+	}
+
+	@Benchmark
+	public Slice<FileSummary> namePrefixFilter() {
+		return fileService.getFiles(ListQuery.of(null, null, null, "report-1", null, null));
+	}
+}
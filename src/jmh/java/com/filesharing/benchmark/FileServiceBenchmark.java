@@ -0,0 +1,81 @@
+package com.filesharing.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.service.FileService;
+
+// 上传和下载路径：写入BlobStore（含哈希和压缩）以及按下载方式输出内容
+// 每次上传的内容相同，存储按哈希去重，磁盘占用不会随迭代次数增长
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class FileServiceBenchmark {
+
+	@Param({"1024", "1048576", "67108864", "1073741824"})
+	public long size;
+
+	@Param({"bin", "txt"})
+	public String type;
+
+	private Path root;
+
+	private ConfigurableApplicationContext context;
+
+	private FileService fileService;
+
+	private byte[] block;
+
+	private Long storedId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmh-file-service");
+		context = BenchmarkApplication.start(root);
+		fileService = context.getBean(FileService.class);
+		block = Payloads.block(type);
+		storedId = fileService.storeFile(newFile(), null, null).getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		context.close();
+		BenchmarkApplication.deleteRecursively(root);
+	}
+
+	@Benchmark
+	public FileEntity storeFile() throws IOException {
+		return fileService.storeFile(newFile(), null, null);
+	}
+
+	// 与下载接口的流式输出相同，原样存储的文件走transferTo，压缩存储的文件边读边解压
+	@Benchmark
+	public long getFile() throws IOException {
+		FileEntity file = fileService.getFile(storedId);
+		return fileService.writeContent(file, 0, fileService.getContentLength(file), OutputStream.nullOutputStream());
+	}
+
+	private SyntheticMultipartFile newFile() {
+		return new SyntheticMultipartFile("payload." + type, block, size);
+	}
+}
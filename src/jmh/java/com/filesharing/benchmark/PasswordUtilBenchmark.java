@@ -0,0 +1,47 @@
+package com.filesharing.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.filesharing.util.PasswordUtil;
+
+// BCrypt编码和校验；错误密码不会被缓存，每次都是完整的BCrypt计算
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PasswordUtilBenchmark {
+
+	private String encoded;
+
+	@Setup
+	public void setUp() {
+		encoded = PasswordUtil.encryptPassword("correct horse battery staple");
+		PasswordUtil.verifyPassword("correct horse battery staple", encoded);
+	}
+
+	@Benchmark
+	public String encrypt() {
+		return PasswordUtil.encryptPassword("correct horse battery staple");
+	}
+
+	@Benchmark
+	public boolean verifyCached() {
+		return PasswordUtil.verifyPassword("correct horse battery staple", encoded);
+	}
+
+	@Benchmark
+	public boolean verifyUncached() {
+		return PasswordUtil.verifyPassword("wrong password", encoded);
+	}
+}
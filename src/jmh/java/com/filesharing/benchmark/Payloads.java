@@ -0,0 +1,55 @@
+package com.filesharing.benchmark;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+// 基准测试使用的合成数据，按块重复生成，任意大小的内容都不会整体进入内存
+final class Payloads {
+
+	static final int BLOCK_SIZE = 64 * 1024;
+
+	private Payloads() {
+	}
+
+	// bin为随机字节（不可压缩），txt为重复的文本行（可压缩，按文本类文件压缩存储）
+	static byte[] block(String type) {
+		byte[] block = new byte[BLOCK_SIZE];
+		if ("txt".equals(type)) {
+			byte[] line = "2026-10-18 12:00:00 INFO  file-sharing request completed in 12ms status=200\n"
+					.getBytes(StandardCharsets.US_ASCII);
+			for (int i = 0; i < block.length; i++) {
+				block[i] = line[i % line.length];
+			}
+		} else {
+			new Random(42).nextBytes(block);
+		}
+		return block;
+	}
+
+	static InputStream stream(byte[] block, long size) {
+		return new InputStream() {
+			private long position;
+
+			@Override
+			public int read() {
+				if (position >= size) {
+					return -1;
+				}
+				return block[(int) (position++ % block.length)] & 0xff;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (position >= size) {
+					return -1;
+				}
+				int offset = (int) (position % block.length);
+				int n = (int) Math.min(Math.min(len, block.length - offset), size - position);
+				System.arraycopy(block, offset, b, off, n);
+				position += n;
+				return n;
+			}
+		};
+	}
+}
@@ -0,0 +1,89 @@
+package com.filesharing.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.filesharing.util.StreamUtil;
+
+// 下载路径的两种输出方式：FileChannel.transferTo与固定缓冲区复制
+// 目标为文件通道时transferTo由内核完成复制，只代表sendfile路径的上限；
+// 下载接口的回退路径目标是Servlet输出流，与transferToStream一样经过堆缓冲区
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StreamTransferBenchmark {
+
+	@Param({"1048576", "67108864"})
+	public long size;
+
+	private Path root;
+
+	private Path source;
+
+	private Path target;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("jmh-transfer");
+		source = root.resolve("source.bin");
+		target = root.resolve("target.bin");
+		try (InputStream in = Payloads.stream(Payloads.block("bin"), size)) {
+			Files.copy(in, source);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		BenchmarkApplication.deleteRecursively(root);
+	}
+
+	@Benchmark
+	public long transferToFile() throws IOException {
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+			 FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					 StandardOpenOption.TRUNCATE_EXISTING)) {
+			long transferred = 0;
+			while (transferred < size) {
+				transferred += in.transferTo(transferred, size - transferred, out);
+			}
+			return transferred;
+		}
+	}
+
+	@Benchmark
+	public long bufferedCopyToFile() throws IOException {
+		try (InputStream in = Files.newInputStream(source);
+			 OutputStream out = Files.newOutputStream(target)) {
+			return StreamUtil.copy(in, out);
+		}
+	}
+
+	// StreamUtil.transfer写入OutputStream时的开销（Servlet输出流不是通道，由JVM中转）
+	@Benchmark
+	public long transferToStream() throws IOException {
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+			return StreamUtil.transfer(in, 0, size, OutputStream.nullOutputStream());
+		}
+	}
+}
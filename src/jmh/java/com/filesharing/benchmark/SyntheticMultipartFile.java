@@ -0,0 +1,65 @@
+package com.filesharing.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.web.multipart.MultipartFile;
+
+// 按需生成内容的上传文件，getBytes之外的方法都不会把内容读入内存
+class SyntheticMultipartFile implements MultipartFile {
+
+	private final String fileName;
+
+	private final byte[] block;
+
+	private final long size;
+
+	SyntheticMultipartFile(String fileName, byte[] block, long size) {
+		this.fileName = fileName;
+		this.block = block;
+		this.size = size;
+	}
+
+	@Override
+	public String getName() {
+		return "file";
+	}
+
+	@Override
+	public String getOriginalFilename() {
+		return fileName;
+	}
+
+	@Override
+	public String getContentType() {
+		return null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public byte[] getBytes() throws IOException {
+		try (InputStream in = getInputStream()) {
+			return in.readAllBytes();
+		}
+	}
+
+	@Override
+	public InputStream getInputStream() {
+		return Payloads.stream(block, size);
+	}
+
+	@Override
+	public void transferTo(File dest) {
+		throw new UnsupportedOperationException();
+	}
+}
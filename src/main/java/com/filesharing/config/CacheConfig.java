@@ -0,0 +1,51 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheConfig {
+    private boolean enabled = true;
+
+    // 缓存占用的总字节数上限，包括文件内容和元数据
+    private long maxSize = 64L * 1024 * 1024;
+
+    // 超过该大小的文件只缓存元数据
+    private long maxEntrySize = 1024 * 1024;
+
+    // 文件内容存放在堆外内存，不计入Java堆
+    private boolean offHeap;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+}
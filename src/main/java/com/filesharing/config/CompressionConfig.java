@@ -0,0 +1,28 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.compression")
+public class CompressionConfig {
+    private boolean enabled = true;
+
+    private int textMinSize = 4096;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTextMinSize() {
+        return textMinSize;
+    }
+
+    public void setTextMinSize(int textMinSize) {
+        this.textMinSize = textMinSize;
+    }
+}
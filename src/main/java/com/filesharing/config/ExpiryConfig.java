@@ -0,0 +1,19 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.expiry")
+public class ExpiryConfig {
+    // 每批删除的最大行数，每批使用独立的短事务
+    private int purgeBatchSize = 500;
+
+    public int getPurgeBatchSize() {
+        return purgeBatchSize;
+    }
+
+    public void setPurgeBatchSize(int purgeBatchSize) {
+        this.purgeBatchSize = purgeBatchSize;
+    }
+}
@@ -8,6 +8,20 @@ import org.springframework.context.annotation.Configuration;
 public class FileUploadConfig {
     private long maxFileSize;
 
+    // 以请求体上传的文本大小上限，单位MB
+    private long maxTextSize = 16;
+
+    // 批量上传和批量删除一次最多包含的条目数
+    private int maxBatchSize = 1000;
+
+    private String sessionDir = "./data/upload-sessions";
+
+    private int defaultChunkSize = 8 * 1024 * 1024;
+
+    private int maxChunkSize = 64 * 1024 * 1024;
+
+    private long sessionTtlMinutes = 24 * 60;
+
     public long getMaxFileSize() {
         return maxFileSize;
     }
@@ -15,4 +29,52 @@ public class FileUploadConfig {
     public void setMaxFileSize(long maxFileSize) {
         this.maxFileSize = maxFileSize;
     }
+
+    public long getMaxTextSize() {
+        return maxTextSize;
+    }
+
+    public void setMaxTextSize(long maxTextSize) {
+        this.maxTextSize = maxTextSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public String getSessionDir() {
+        return sessionDir;
+    }
+
+    public void setSessionDir(String sessionDir) {
+        this.sessionDir = sessionDir;
+    }
+
+    public int getDefaultChunkSize() {
+        return defaultChunkSize;
+    }
+
+    public void setDefaultChunkSize(int defaultChunkSize) {
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public long getSessionTtlMinutes() {
+        return sessionTtlMinutes;
+    }
+
+    public void setSessionTtlMinutes(long sessionTtlMinutes) {
+        this.sessionTtlMinutes = sessionTtlMinutes;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.processing")
+public class ProcessingConfig {
+    private boolean enabled = true;
+
+    // 处理线程数，缩略图生成占用CPU，不使用虚拟线程
+    private int threads = 2;
+
+    // 等待处理的文件数上限，队列满时新文件保持待处理状态，由定时任务稍后补充处理
+    private int queueCapacity = 256;
+
+    // 缩略图最长边的像素数
+    private int thumbnailSize = 256;
+
+    // 超过该像素数的图片不生成缩略图，避免解码超大图片耗尽内存
+    private long maxImagePixels = 50_000_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getThumbnailSize() {
+        return thumbnailSize;
+    }
+
+    public void setThumbnailSize(int thumbnailSize) {
+        this.thumbnailSize = thumbnailSize;
+    }
+
+    public long getMaxImagePixels() {
+        return maxImagePixels;
+    }
+
+    public void setMaxImagePixels(long maxImagePixels) {
+        this.maxImagePixels = maxImagePixels;
+    }
+}
@@ -0,0 +1,45 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.quota")
+public class QuotaConfig {
+    // 所有文件占用的总空间上限，单位MB，0表示不限制
+    private long maxTotalSize;
+
+    // 每个客户端占用的空间上限，单位MB，0表示不限制
+    private long maxClientSize;
+
+    // 识别客户端的请求头，例如反向代理设置的X-Forwarded-For；为空时使用连接的远端地址
+    private String clientHeader;
+
+    public long getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(long maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    public long getMaxClientSize() {
+        return maxClientSize;
+    }
+
+    public void setMaxClientSize(long maxClientSize) {
+        this.maxClientSize = maxClientSize;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public boolean isEnabled() {
+        return maxTotalSize > 0 || maxClientSize > 0;
+    }
+}
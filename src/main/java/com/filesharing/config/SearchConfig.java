@@ -0,0 +1,40 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.search")
+public class SearchConfig {
+    private boolean enabled = true;
+
+    // 文本内容只索引前面这么多字符，限制单个文本产生的词条数
+    private int maxIndexedChars = 100_000;
+
+    // 重建索引时每个事务处理的文件或文本数
+    private int rebuildBatchSize = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxIndexedChars() {
+        return maxIndexedChars;
+    }
+
+    public void setMaxIndexedChars(int maxIndexedChars) {
+        this.maxIndexedChars = maxIndexedChars;
+    }
+
+    public int getRebuildBatchSize() {
+        return rebuildBatchSize;
+    }
+
+    public void setRebuildBatchSize(int rebuildBatchSize) {
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+}
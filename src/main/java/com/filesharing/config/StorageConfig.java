@@ -0,0 +1,58 @@
+package com.filesharing.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.storage")
+public class StorageConfig {
+    private String type = "local";
+
+    private String localRoot = "./data/blobs";
+
+    private int migrationBatchSize = 100;
+
+    private boolean migrateOnStartup;
+
+    private long blobGcGraceMinutes = 10;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getLocalRoot() {
+        return localRoot;
+    }
+
+    public void setLocalRoot(String localRoot) {
+        this.localRoot = localRoot;
+    }
+
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    public void setMigrationBatchSize(int migrationBatchSize) {
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    public boolean isMigrateOnStartup() {
+        return migrateOnStartup;
+    }
+
+    public void setMigrateOnStartup(boolean migrateOnStartup) {
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    public long getBlobGcGraceMinutes() {
+        return blobGcGraceMinutes;
+    }
+
+    public void setBlobGcGraceMinutes(long blobGcGraceMinutes) {
+        this.blobGcGraceMinutes = blobGcGraceMinutes;
+    }
+}
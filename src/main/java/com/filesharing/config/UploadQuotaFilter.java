@@ -0,0 +1,68 @@
+package com.filesharing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.filesharing.exception.QuotaExceededException;
+import com.filesharing.service.QuotaService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// 在解析multipart请求体之前按Content-Length检查配额，超出时直接拒绝，不接收文件内容
+@Component
+public class UploadQuotaFilter extends OncePerRequestFilter {
+
+    private static final Set<String> UPLOAD_PATHS = Set.of("/api/files/upload", "/api/files/upload/batch",
+            "/api/files/upload/text");
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private QuotaConfig quotaConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !quotaConfig.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !UPLOAD_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // 分块传输没有Content-Length，写入后再按实际大小检查
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > 0) {
+            try {
+                quotaService.checkAvailable(quotaService.resolveClientId(request), contentLength);
+            } catch (QuotaExceededException e) {
+                response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                Map<String, Object> body = new HashMap<>();
+                body.put("message", e.getMessage());
+                body.put("error", "QUOTA_EXCEEDED");
+                objectMapper.writeValue(response.getWriter(), body);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
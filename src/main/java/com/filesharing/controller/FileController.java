@@ -1,17 +1,39 @@
 package com.filesharing.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.filesharing.config.FileUploadConfig;
+import com.filesharing.exception.QuotaExceededException;
+import com.filesharing.metrics.TransferMetrics;
 import com.filesharing.model.FileEntity;
+import com.filesharing.model.FileSummary;
+import com.filesharing.model.FileThumbnail;
+import com.filesharing.repository.ListQuery;
 import com.filesharing.service.FileService;
-
+import com.filesharing.service.QuotaService;
+import com.filesharing.service.ZipArchiveService;
+import com.filesharing.util.ConditionalRequestUtil;
+import com.filesharing.util.CursorUtil;
+import com.filesharing.util.ExpiryUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,47 +41,132 @@ import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/files")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = FileController.NEXT_CURSOR_HEADER)
 public class FileController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Tomcat的sendfile请求属性，参见 org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private FileUploadConfig fileUploadConfig;
 
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private TransferMetrics transferMetrics;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private ZipArchiveService zipArchiveService;
+
     @GetMapping("/config")
     public Map<String, Object> getConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put("maxFileSize", fileUploadConfig.getMaxFileSize());
+        config.put("maxBatchSize", fileUploadConfig.getMaxBatchSize());
         return config;
     }
 
+    // 内容去重统计
+    @GetMapping("/stats/dedup")
+    public Map<String, Object> getDedupStats() {
+        return fileService.getDedupStats();
+    }
+
+    // 热点文件缓存的命中率和占用字节数
+    @GetMapping("/stats/cache")
+    public Map<String, Object> getCacheStats() {
+        return fileService.getCacheStats();
+    }
+
+    // 存储压缩率和压缩耗时统计
+    @GetMapping("/stats/compression")
+    public Map<String, Object> getCompressionStats() {
+        return fileService.getCompressionStats();
+    }
+
+    // 存储用量和配额，包括所有文件的总量和当前客户端的用量
+    @GetMapping("/stats/quota")
+    public Map<String, Object> getQuotaStats(HttpServletRequest request) {
+        return quotaService.getUsage(quotaService.resolveClientId(request));
+    }
+
     @PostMapping("/upload")
     public ResponseEntity<FileUploadResponse> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(required = false) String remark,
-            @RequestParam(required = false) String password) {
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn,
+            @RequestParam(required = false) Integer maxDownloads,
+            HttpServletRequest request) {
         // 检查文件大小是否超过限制
         if (file.getSize() > fileUploadConfig.getMaxFileSize() * 1024 * 1024) {
             throw new RuntimeException("File size exceeds the limit of " + fileUploadConfig.getMaxFileSize() + "MB");
         }
         try {
-            FileEntity fileEntity = fileService.storeFile(file, remark, password);
+            ExpiryUtil.validateMaxDownloads(maxDownloads);
+            FileEntity fileEntity = fileService.storeFile(file, remark, password,
+                    ExpiryUtil.expireTime(expiresIn), maxDownloads, quotaService.resolveClientId(request));
             FileUploadResponse response = new FileUploadResponse(
                     fileEntity.getId(),
                     fileEntity.getFileName(),
                     fileEntity.getFileType(),
-                    file.getSize(),
+                    fileEntity.getFileSize(),
                     fileEntity.getRemark(),
-                    fileEntity.getCreateTime()
+                    fileEntity.getCreateTime(),
+                    fileEntity.getExpireTime(),
+                    fileEntity.getMaxDownloads()
             );
             return ResponseEntity.ok(response);
+        } catch (QuotaExceededException e) {
+            // 由GlobalExceptionHandler返回413
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    // 一次上传多个文件，remark、password、expiresIn和maxDownloads对所有文件生效；任一文件失败时整批不保存
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<FileUploadResponse>> uploadFiles(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(required = false) String remark,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn,
+            @RequestParam(required = false) Integer maxDownloads,
+            HttpServletRequest request) throws IOException {
+        checkBatchSize(files.size());
+        for (MultipartFile file : files) {
+            if (file.getSize() > fileUploadConfig.getMaxFileSize() * 1024 * 1024) {
+                throw new RuntimeException("File size exceeds the limit of " + fileUploadConfig.getMaxFileSize() + "MB");
+            }
+        }
+        ExpiryUtil.validateMaxDownloads(maxDownloads);
+        List<FileEntity> stored = fileService.storeFiles(files, remark, password,
+                ExpiryUtil.expireTime(expiresIn), maxDownloads, quotaService.resolveClientId(request));
+        List<FileUploadResponse> responses = stored.stream()
+                .map(fileEntity -> new FileUploadResponse(
+                        fileEntity.getId(),
+                        fileEntity.getFileName(),
+                        fileEntity.getFileType(),
+                        fileEntity.getFileSize(),
+                        fileEntity.getRemark(),
+                        fileEntity.getCreateTime(),
+                        fileEntity.getExpireTime(),
+                        fileEntity.getMaxDownloads()
+                ))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(responses);
+    }
+
     @PostMapping("/{id}/verify")
     public ResponseEntity<String> verifyPassword(@PathVariable Long id, @RequestParam String password) {
         try {
@@ -71,15 +178,17 @@ public class FileController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<byte[]> getFile(
+    public ResponseEntity<StreamingResponseBody> getFile(
             @PathVariable Long id,
-            @RequestParam(required = false) String password) {
+            @RequestParam(required = false) String password,
+            HttpServletRequest request) {
         try {
             FileEntity fileEntity = password != null ?
                     fileService.getFileWithPassword(id, password) :
                     fileService.getFile(id);
 
-            if (fileEntity.getData() == null || fileEntity.getData().length == 0) {
+            long length = fileService.getContentLength(fileEntity);
+            if (length == 0) {
                 return ResponseEntity.badRequest().body(null);
             }
 
@@ -89,26 +198,229 @@ public class FileController {
             }
 
             // 设置响应头，强制浏览器下载文件而不是在浏览器中打开
-            // 使用二进制类型的Content-Type并设置文件范围
+            // 使用二进制类型的Content-Type，并支持断点续传和分段下载
             String encodedFileName = java.net.URLEncoder.encode(fileName, "UTF-8").replace("+", "%20");
             String disposition = String.format("attachment; filename=\"%s\"; filename*=UTF-8''%s",
                     fileName.replace("\\", "\\\\").replace("\"", "\\\""),
                     encodedFileName);
-            byte[] fileData = fileEntity.getData();
+            // 上传后内容不再变化，ETag直接使用内容哈希（存储键），不同编码的表示使用不同的强ETag
+            String etag = fileEntity.getStorageKey() != null ? "\"" + fileEntity.getStorageKey() + "\"" : null;
+            String storedEncoding = fileEntity.getStorageKey() != null ? fileEntity.getEncoding() : null;
+            // 客户端接受存储时的编码时直接发送压缩后的字节，不在每次请求时解压或重新压缩
+            // 区间请求针对的是原始内容，仍按解压后的内容处理
+            boolean sendStored = storedEncoding != null && request.getHeader(HttpHeaders.RANGE) == null
+                    && acceptsEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING), storedEncoding);
+            String responseEtag = sendStored ?
+                    "\"" + fileEntity.getStorageKey() + "-" + storedEncoding + "\"" : etag;
+
+            // 条件请求只比较元数据，命中时不读取文件内容
+            if (ConditionalRequestUtil.isNotModified(request, responseEtag, fileEntity.getCreateTime())) {
+                ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+                if (responseEtag != null) {
+                    notModified.eTag(responseEtag);
+                }
+                if (fileEntity.getCreateTime() != null) {
+                    notModified.lastModified(fileEntity.getCreateTime());
+                }
+                if (storedEncoding != null) {
+                    notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return notModified.build();
+            }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType("application/x-binary"))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+            // 解析Range请求头，If-Range校验不通过时返回完整内容
+            List<HttpRange> ranges;
+            try {
+                ranges = isIfRangeMatched(request, etag, fileEntity.getCreateTime()) ?
+                        HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE)) : List.of();
+                validateRanges(ranges, length);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+
+            // 从头开始的下载才计入下载次数，断点续传的后续区间和HEAD请求不计数
+            if (!HttpMethod.HEAD.matches(request.getMethod())
+                    && (ranges.isEmpty() || ranges.get(0).getRangeStart(length) == 0)) {
+                fileService.consumeDownload(fileEntity);
+            }
+
+            ResponseEntity.BodyBuilder builder = ranges.isEmpty() ?
+                    ResponseEntity.ok() : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT);
+            builder.header(HttpHeaders.CONTENT_DISPOSITION, disposition)
                     .header("X-Content-Type-Options", "nosniff")
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileData.length))
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes 0-" + (fileData.length - 1) + "/" + fileData.length)
-                    .body(fileData);
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (fileEntity.getCreateTime() != null) {
+                builder.lastModified(fileEntity.getCreateTime());
+            }
+            if (storedEncoding != null) {
+                builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+
+            if (sendStored) {
+                long storedLength = fileService.getStoredLength(fileEntity);
+                builder.eTag(responseEtag)
+                        .header(HttpHeaders.CONTENT_ENCODING, storedEncoding)
+                        .contentType(MediaType.parseMediaType("application/x-binary"))
+                        .contentLength(storedLength);
+                Path storedPath = fileService.getStoredPath(fileEntity);
+                if (storedPath != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                    request.setAttribute(SENDFILE_FILENAME_ATTR, storedPath.toString());
+                    request.setAttribute(SENDFILE_START_ATTR, 0L);
+                    request.setAttribute(SENDFILE_END_ATTR, storedLength);
+                    transferMetrics.recordSendfile(storedLength);
+                    return builder.build();
+                }
+                return builder.body(outputStream -> transferMetrics.recordDownload(TransferMetrics.MODE_STORED,
+                        () -> fileService.writeStoredContent(fileEntity, outputStream)));
+            }
+            if (etag != null) {
+                builder.eTag(etag);
+            }
+
+            // 多个区间使用multipart/byteranges格式逐段输出
+            if (ranges.size() > 1) {
+                String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+                return builder.contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                        .body(outputStream -> transferMetrics.recordDownload(TransferMetrics.MODE_RANGES,
+                                () -> writeByteRanges(fileEntity, ranges, length, boundary, outputStream)));
+            }
+
+            long start = 0;
+            long end = length - 1;
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            long rangeStart = start;
+            long count = end - start + 1;
+            builder.contentType(MediaType.parseMediaType("application/x-binary"))
+                    .contentLength(count);
+
+            Path localPath = fileService.getLocalPath(fileEntity);
+            if (localPath != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                // 由Tomcat通过sendfile直接从文件发送到socket，文件内容不经过JVM堆
+                request.setAttribute(SENDFILE_FILENAME_ATTR, localPath.toString());
+                request.setAttribute(SENDFILE_START_ATTR, rangeStart);
+                request.setAttribute(SENDFILE_END_ATTR, rangeStart + count);
+                transferMetrics.recordSendfile(count);
+                return builder.build();
+            }
+            // 只读取请求的区间，不分配与文件等大的缓冲区
+            return builder.body(outputStream -> transferMetrics.recordDownload(TransferMetrics.MODE_STREAM,
+                    () -> fileService.writeContent(fileEntity, rangeStart, count, outputStream)));
         } catch (Exception e) {
             e.printStackTrace(); // 打印错误堆栈以便调试
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    // 缩略图在上传后异步生成，存放在数据库中，不读取原始文件
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long id, HttpServletRequest request) {
+        try {
+            FileEntity fileEntity = fileService.getFile(id);
+            String etag = fileEntity.getContentHash() != null ? "\"" + fileEntity.getContentHash() + "-thumbnail\"" : null;
+            if (ConditionalRequestUtil.isNotModified(request, etag, fileEntity.getCreateTime())) {
+                ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED);
+                if (etag != null) {
+                    notModified.eTag(etag);
+                }
+                return notModified.build();
+            }
+            FileThumbnail thumbnail = fileService.getThumbnail(fileEntity);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(thumbnail.getContentType()))
+                    .header("X-Content-Type-Options", "nosniff");
+            if (etag != null) {
+                builder.eTag(etag);
+            }
+            if (fileEntity.getCreateTime() != null) {
+                builder.lastModified(fileEntity.getCreateTime());
+            }
+            return builder.body(thumbnail.getContent());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    // 按RFC 9110解析Accept-Encoding，q=0表示明确拒绝该编码
+    private boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(parameter.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(encoding)) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private boolean isIfRangeMatched(HttpServletRequest request, String etag, Long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        // If-Range只接受强校验，弱ETag视为不匹配
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified != null && date == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void validateRanges(List<HttpRange> ranges, long length) {
+        long total = 0;
+        for (HttpRange range : ranges) {
+            // 区间起点超出文件长度时抛出IllegalArgumentException
+            total += range.getRangeEnd(length) - range.getRangeStart(length) + 1;
+        }
+        if (ranges.size() > 1 && total > length) {
+            throw new IllegalArgumentException("Requested ranges exceed the file length");
+        }
+    }
+
+    private long writeByteRanges(FileEntity fileEntity, List<HttpRange> ranges, long length,
+                                 String boundary, OutputStream out) throws IOException {
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            String partHeader = "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: application/x-binary\r\n"
+                    + "Content-Range: bytes " + start + "-" + end + "/" + length + "\r\n\r\n";
+            out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+            total += fileService.writeContent(fileEntity, start, end - start + 1, out);
+        }
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return total;
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteFile(@PathVariable Long id) {
         try {
@@ -119,11 +431,51 @@ public class FileController {
         }
     }
 
+    // 按id批量删除，如 DELETE /api/files?ids=1,2,3；不存在的id被忽略
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> deleteFiles(@RequestParam List<Long> ids) {
+        checkBatchSize(ids.size());
+        Map<String, Object> result = new HashMap<>();
+        result.put("requested", ids.size());
+        result.put("deleted", fileService.deleteFiles(ids));
+        return ResponseEntity.ok(result);
+    }
+
+    // 多个文件打包为ZIP下载，如 GET /api/files/zip?ids=1,2,3；压缩包边生成边发送，长度事先未知，使用分块传输
+    @GetMapping("/zip")
+    public ResponseEntity<StreamingResponseBody> getZip(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String password,
+            HttpServletRequest request) {
+        checkBatchSize(ids.size());
+        // 输出内容前完成全部校验并占用下载次数，出错时返回400而不是一个不完整的压缩包
+        List<FileEntity> files = zipArchiveService.getFiles(ids, password);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            for (FileEntity file : files) {
+                fileService.consumeDownload(file);
+            }
+        }
+        String fileName = "files-" + System.currentTimeMillis() + ".zip";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header("X-Content-Type-Options", "nosniff")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(outputStream -> transferMetrics.recordDownload(TransferMetrics.MODE_ZIP,
+                        () -> zipArchiveService.write(files, outputStream)));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > fileUploadConfig.getMaxBatchSize()) {
+            throw new RuntimeException("A batch must contain 1 to " + fileUploadConfig.getMaxBatchSize() + " items");
+        }
+    }
+
     @PostMapping("/upload/text")
-    public ResponseEntity<String> uploadText(@RequestParam("content") String content, @RequestParam("fileName") String fileName) {
+    public ResponseEntity<String> uploadText(@RequestParam("content") String content, @RequestParam("fileName") String fileName,
+                                             HttpServletRequest request) {
         try {
             byte[] textBytes = content.getBytes();
-            FileEntity fileEntity = fileService.storeText(fileName, textBytes);
+            FileEntity fileEntity = fileService.storeText(fileName, textBytes, quotaService.resolveClientId(request));
             String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                     .path("/api/files/")
                     .path(String.valueOf(fileEntity.getId()))
@@ -136,20 +488,34 @@ public class FileController {
     }
 
     @GetMapping
-    public ResponseEntity<List<FileInfo>> getAllFiles() {
-        List<FileInfo> files = fileService.getAllFiles().stream().map(file -> {
+    public ResponseEntity<List<FileInfo>> getAllFiles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        Slice<FileSummary> page = fileService.getFiles(ListQuery.of(cursor, limit, type, namePrefix, from, to));
+        List<FileInfo> files = page.getContent().stream().map(file -> {
             return new FileInfo(
                     file.getId(),
                     file.getFileName(),
                     file.getFileType(),
-                    file.getData().length,
+                    file.getFileSize() != null ? file.getFileSize() : 0,
                     file.getCreateTime(),
                     file.getRemark(),
-                    file.getPassword() != null  // 添加是否需要密码的标志
+                    file.isPasswordProtected(),  // 添加是否需要密码的标志
+                    file.isHasThumbnail() ? "/api/files/" + file.getId() + "/thumbnail" : null
             );
         }).collect(Collectors.toList());
 
-        return ResponseEntity.ok().body(files);
+        // 还有下一页时通过响应头返回游标，响应体保持原有的列表格式
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.hasNext()) {
+            FileSummary last = page.getContent().get(page.getContent().size() - 1);
+            builder.header(NEXT_CURSOR_HEADER, CursorUtil.encode(last.getCreateTime(), last.getId()));
+        }
+        return builder.body(files);
     }
 
     private static class FileUploadResponse {
@@ -159,14 +525,19 @@ public class FileController {
         private long size;
         private String remark;
         private Long createTime;
+        private Long expireTime;
+        private Integer maxDownloads;
 
-        public FileUploadResponse(Long id, String fileName, String fileType, long size, String remark, Long createTime) {
+        public FileUploadResponse(Long id, String fileName, String fileType, long size, String remark, Long createTime,
+                                  Long expireTime, Integer maxDownloads) {
             this.id = id;
             this.fileName = fileName;
             this.fileType = fileType;
             this.size = size;
             this.remark = remark;
             this.createTime = createTime;
+            this.expireTime = expireTime;
+            this.maxDownloads = maxDownloads;
         }
 
         public String getFileName() {
@@ -192,6 +563,14 @@ public class FileController {
         public Long getId() {
             return id;
         }
+
+        public Long getExpireTime() {
+            return expireTime;
+        }
+
+        public Integer getMaxDownloads() {
+            return maxDownloads;
+        }
     }
 
     private static class FileInfo {
@@ -202,8 +581,10 @@ public class FileController {
         private Long createTime;
         private String remark;
         private boolean passwordProtected;  // 新增字段
+        private String thumbnailUrl;
 
-        public FileInfo(Long id, String fileName, String fileType, long size, Long createTime, String remark, boolean passwordProtected) {
+        public FileInfo(Long id, String fileName, String fileType, long size, Long createTime, String remark, boolean passwordProtected,
+                        String thumbnailUrl) {
             this.id = id;
             this.fileName = fileName;
             this.fileType = fileType;
@@ -211,6 +592,7 @@ public class FileController {
             this.createTime = createTime;
             this.remark = remark;
             this.passwordProtected = passwordProtected;
+            this.thumbnailUrl = thumbnailUrl;
         }
 
         public String getFileName() {
@@ -237,6 +619,10 @@ public class FileController {
             return passwordProtected;
         }
 
+        public String getThumbnailUrl() {
+            return thumbnailUrl;
+        }
+
         public Long getId() {
             return id;
         }
@@ -0,0 +1,138 @@
+package com.filesharing.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.filesharing.model.SearchHit;
+import com.filesharing.model.SearchPosting;
+import com.filesharing.repository.ListQuery;
+import com.filesharing.search.SearchIndexService;
+import com.filesharing.search.SearchRebuildService;
+import com.filesharing.util.CursorUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*", exposedHeaders = FileController.NEXT_CURSOR_HEADER)
+public class SearchController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchRebuildService searchRebuildService;
+
+    // type为file时匹配文件名和备注，为text时匹配文本内容和备注；多个词之间为“与”关系，结果按上传顺序倒序
+    @GetMapping
+    public ResponseEntity<List<SearchResult>> search(
+            @RequestParam("q") String query,
+            @RequestParam String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String docType;
+        String path;
+        if (type.equals("file")) {
+            docType = SearchPosting.TYPE_FILE;
+            path = "/api/files/";
+        } else if (type.equals("text")) {
+            docType = SearchPosting.TYPE_TEXT;
+            path = "/api/texts/";
+        } else {
+            throw new RuntimeException("Unsupported search type: " + type);
+        }
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, ListQuery.MAX_LIMIT)) : ListQuery.DEFAULT_LIMIT;
+        Long cursorId = cursor != null && !cursor.isEmpty() ? CursorUtil.decodeId(cursor) : null;
+
+        Slice<SearchHit> page = searchIndexService.search(docType, query, cursorId, pageSize);
+        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().path(path).toUriString();
+        List<SearchResult> results = page.getContent().stream()
+                .map(hit -> new SearchResult(hit, type, baseUrl + hit.getId()))
+                .collect(Collectors.toList());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.hasNext()) {
+            SearchHit last = page.getContent().get(page.getContent().size() - 1);
+            builder.header(FileController.NEXT_CURSOR_HEADER, CursorUtil.encode(last.getId()));
+        }
+        return builder.body(results);
+    }
+
+    // 在后台重建索引，已有重建在进行时返回409
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        boolean started = searchRebuildService.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(searchRebuildService.getStatus());
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(searchRebuildService.getStatus());
+    }
+
+    private static class SearchResult {
+        private final Long id;
+        private final String type;
+        private final String fileName;
+        private final String remark;
+        private final String preview;
+        private final Long createTime;
+        private final boolean passwordProtected;
+        private final Long size;
+        private final String url;
+
+        SearchResult(SearchHit hit, String type, String url) {
+            this.id = hit.getId();
+            this.type = type;
+            this.fileName = hit.getFileName();
+            this.remark = hit.getRemark();
+            this.preview = hit.getPreview();
+            this.createTime = hit.getCreateTime();
+            this.passwordProtected = hit.isPasswordProtected();
+            this.size = hit.getSize();
+            this.url = url;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public String getPreview() {
+            return preview;
+        }
+
+        public Long getCreateTime() {
+            return createTime;
+        }
+
+        public boolean isPasswordProtected() {
+            return passwordProtected;
+        }
+
+        public Long getSize() {
+            return size;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+}
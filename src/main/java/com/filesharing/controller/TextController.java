@@ -1,35 +1,59 @@
 package com.filesharing.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.filesharing.config.FileUploadConfig;
 import com.filesharing.model.TextEntity;
+import com.filesharing.model.TextHeader;
+import com.filesharing.model.TextSummary;
+import com.filesharing.repository.ListQuery;
 import com.filesharing.service.TextService;
+import com.filesharing.util.ConditionalRequestUtil;
+import com.filesharing.util.CursorUtil;
+import com.filesharing.util.ExpiryUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/texts")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = FileController.NEXT_CURSOR_HEADER)
 public class TextController {
 
     @Autowired
     private TextService textService;
 
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
     @PostMapping("/upload")
     public ResponseEntity<TextUploadResponse> uploadText(
             @RequestParam("content") String content,
             @RequestParam(required = false) String remark,
-            @RequestParam(required = false) String password) {
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn) {
         try {
-            TextEntity textEntity = textService.storeText(content, remark, password);
+            TextEntity textEntity = textService.storeText(content, remark, password, ExpiryUtil.expireTime(expiresIn));
             TextUploadResponse response = new TextUploadResponse(
                 textEntity.getId(),
                 textEntity.getContent(),
                 textEntity.getRemark(),
-                textEntity.getCreateTime()
+                textEntity.getCreateTime(),
+                textEntity.getExpireTime()
             );
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -37,6 +61,73 @@ public class TextController {
         }
     }
 
+    // 文本作为UTF-8原始请求体上传，不经过表单解码，响应中只返回id和元数据；
+    // 表单编码的请求体会被容器解析为请求参数，因此只接受text/*和application/octet-stream
+    @PostMapping(value = "/upload/raw", consumes = {"text/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<TextUploadResponse> uploadRawText(
+            @RequestParam(required = false) String remark,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn,
+            HttpServletRequest request) throws IOException {
+        String charset = request.getCharacterEncoding();
+        if (charset != null && !charset.equalsIgnoreCase("UTF-8") && !charset.equalsIgnoreCase("UTF8")) {
+            throw new RuntimeException("Only UTF-8 text is supported");
+        }
+        long maxBytes = fileUploadConfig.getMaxTextSize() * 1024 * 1024;
+        // 声明的长度已超过限制时不读取请求体
+        if (request.getContentLengthLong() > maxBytes) {
+            throw new RuntimeException("Text size exceeds the limit of " + fileUploadConfig.getMaxTextSize() + "MB");
+        }
+        Long expireTime = ExpiryUtil.expireTime(expiresIn);
+        TextEntity textEntity;
+        try (InputStream in = request.getInputStream()) {
+            textEntity = textService.storeText(in, maxBytes, remark, password, expireTime);
+        }
+        return ResponseEntity.ok(new TextUploadResponse(
+            textEntity.getId(),
+            null,
+            textEntity.getRemark(),
+            textEntity.getCreateTime(),
+            textEntity.getExpireTime()
+        ));
+    }
+
+    // 一次上传多个文本，请求体为 [{"content": "...", "remark": "..."}]，password和expiresIn对所有文本生效；
+    // 响应中只返回id和元数据
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<TextUploadResponse>> uploadTexts(
+            @RequestBody List<BatchTextItem> items,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn) {
+        checkBatchSize(items.size());
+        long maxBytes = fileUploadConfig.getMaxTextSize() * 1024 * 1024;
+        List<String> contents = new ArrayList<>(items.size());
+        List<String> remarks = new ArrayList<>(items.size());
+        for (BatchTextItem item : items) {
+            if (item.getContent() == null) {
+                throw new RuntimeException("Text content is required");
+            }
+            // 每个字符的UTF-8编码最多3字节（代理对为4字节，对应2个char）
+            if ((long) item.getContent().length() * 3 > maxBytes
+                    && item.getContent().getBytes(StandardCharsets.UTF_8).length > maxBytes) {
+                throw new RuntimeException("Text size exceeds the limit of " + fileUploadConfig.getMaxTextSize() + "MB");
+            }
+            contents.add(item.getContent());
+            remarks.add(item.getRemark());
+        }
+        List<TextEntity> stored = textService.storeTexts(contents, remarks, password, ExpiryUtil.expireTime(expiresIn));
+        List<TextUploadResponse> responses = stored.stream()
+            .map(textEntity -> new TextUploadResponse(
+                textEntity.getId(),
+                null,
+                textEntity.getRemark(),
+                textEntity.getCreateTime(),
+                textEntity.getExpireTime()
+            ))
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(responses);
+    }
+
     @PostMapping("/{id}/verify")
     public ResponseEntity<String> verifyPassword(@PathVariable Long id, @RequestParam String password) {
         try {
@@ -50,8 +141,21 @@ public class TextController {
     @GetMapping("/{id}")
     public ResponseEntity<TextResponse> getText(
             @PathVariable Long id,
-            @RequestParam(required = false) String password) {
+            @RequestParam(required = false) String password,
+            HttpServletRequest request) {
         try {
+            // 受密码保护且未提供密码时返回的是屏蔽后的内容，不提供校验信息
+            TextHeader header = textService.getTextHeader(id, password);
+            boolean masked = header.getPassword() != null && password == null;
+            String etag = masked ? null : etag(header);
+            if (etag != null && ConditionalRequestUtil.isNotModified(request, etag, header.getCreateTime())) {
+                ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag);
+                if (header.getCreateTime() != null) {
+                    notModified.lastModified(header.getCreateTime());
+                }
+                return notModified.build();
+            }
+
             TextEntity textEntity = password != null ?
                     textService.getTextWithPassword(id, password) :
                     textService.getText(id);
@@ -66,28 +170,90 @@ public class TextController {
                 textEntity.getContent(),
                 textEntity.getRemark(),
                 textEntity.getCreateTime(),
-                textEntity.getPassword() != null  // 添加是否需要密码的标志
+                textEntity.getPassword() != null,  // 添加是否需要密码的标志
+                textEntity.getByteCount(),
+                textEntity.getLineCount(),
+                false
             );
-            return ResponseEntity.ok(response);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (etag != null) {
+                builder.eTag(etag);
+                if (header.getCreateTime() != null) {
+                    builder.lastModified(header.getCreateTime());
+                }
+            }
+            return builder.body(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    // 以text/plain流式输出文本，不在内存中生成完整的String；受密码保护的文本必须提供密码
+    @GetMapping("/{id}/raw")
+    public ResponseEntity<StreamingResponseBody> getRawText(
+            @PathVariable Long id,
+            @RequestParam(required = false) String password,
+            HttpServletRequest request) {
+        TextHeader header = textService.getTextHeader(id, password);
+        if (header.getPassword() != null && password == null) {
+            throw new RuntimeException("Password required");
+        }
+        String etag = etag(header);
+        if (ConditionalRequestUtil.isNotModified(request, etag, header.getCreateTime())) {
+            ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag);
+            if (header.getCreateTime() != null) {
+                notModified.lastModified(header.getCreateTime());
+            }
+            return notModified.build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .header("X-Content-Type-Options", "nosniff")
+                .eTag(etag);
+        if (header.getCreateTime() != null) {
+            builder.lastModified(header.getCreateTime());
+        }
+        if (header.getByteCount() != null) {
+            builder.contentLength(header.getByteCount());
+        }
+        return builder.body(outputStream -> textService.writeContent(header, outputStream));
+    }
+
+    // 优先使用内容哈希，旧数据没有哈希时使用id和创建时间
+    private String etag(TextHeader header) {
+        return "\"" + (header.getContentHash() != null ?
+                header.getContentHash() : "text-" + header.getId() + "-" + header.getCreateTime()) + "\"";
+    }
+
     @GetMapping
-    public ResponseEntity<List<TextResponse>> getAllTexts() {
+    public ResponseEntity<List<TextResponse>> getAllTexts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String remarkPrefix,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
         try {
-            List<TextEntity> texts = textService.getAllTexts();
-            List<TextResponse> responses = texts.stream()
+            // 列表只返回写入时生成的预览，truncated为true时通过详情接口获取完整内容
+            Slice<TextSummary> page = textService.getTexts(ListQuery.of(cursor, limit, null, remarkPrefix, from, to));
+            List<TextResponse> responses = page.getContent().stream()
                 .map(text -> new TextResponse(
                     text.getId(),
-                    text.getPassword() != null ? "******" : text.getContent(),
+                    text.isPasswordProtected() ? "******" : text.getPreview(),
                     text.getRemark(),
                     text.getCreateTime(),
-                    text.getPassword() != null  // 添加是否需要密码的标志
+                    text.isPasswordProtected(),  // 添加是否需要密码的标志
+                    text.getByteCount(),
+                    text.getLineCount(),
+                    !text.isPasswordProtected() && text.isTruncated()
                 ))
                 .collect(Collectors.toList());
-            return ResponseEntity.ok(responses);
+            // 还有下一页时通过响应头返回游标
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (page.hasNext()) {
+                TextSummary last = page.getContent().get(page.getContent().size() - 1);
+                builder.header(FileController.NEXT_CURSOR_HEADER, CursorUtil.encode(last.getCreateTime(), last.getId()));
+            }
+            return builder.body(responses);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -99,13 +265,32 @@ public class TextController {
         private String remark;
         private Long createTime;
         private boolean passwordProtected;  // 新增字段
+        private Long size;
+        private Long lineCount;
+        private boolean truncated;
 
-        public TextResponse(Long id, String content, String remark, Long createTime, boolean passwordProtected) {
+        public TextResponse(Long id, String content, String remark, Long createTime, boolean passwordProtected,
+                            Long size, Long lineCount, boolean truncated) {
             this.id = id;
             this.content = content;
             this.remark = remark;
             this.createTime = createTime;
             this.passwordProtected = passwordProtected;
+            this.size = size;
+            this.lineCount = lineCount;
+            this.truncated = truncated;
+        }
+
+        public Long getSize() {
+            return size;
+        }
+
+        public Long getLineCount() {
+            return lineCount;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
         }
 
         public Long getId() {
@@ -159,17 +344,60 @@ public class TextController {
         }
     }
 
+    // 按id批量删除，如 DELETE /api/texts?ids=1,2,3；不存在的id被忽略
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> deleteTexts(@RequestParam List<Long> ids) {
+        checkBatchSize(ids.size());
+        Map<String, Object> result = new HashMap<>();
+        result.put("requested", ids.size());
+        result.put("deleted", textService.deleteTexts(ids));
+        return ResponseEntity.ok(result);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > fileUploadConfig.getMaxBatchSize()) {
+            throw new RuntimeException("A batch must contain 1 to " + fileUploadConfig.getMaxBatchSize() + " items");
+        }
+    }
+
+    private static class BatchTextItem {
+        private String content;
+        private String remark;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+    }
+
     private static class TextUploadResponse {
         private Long id;
         private String content;
         private String remark;
         private Long createTime;
+        private Long expireTime;
 
-        public TextUploadResponse(Long id, String content, String remark, Long createTime) {
+        public TextUploadResponse(Long id, String content, String remark, Long createTime, Long expireTime) {
             this.id = id;
             this.content = content;
             this.remark = remark;
             this.createTime = createTime;
+            this.expireTime = expireTime;
+        }
+
+        public Long getExpireTime() {
+            return expireTime;
         }
 
         public Long getId() {
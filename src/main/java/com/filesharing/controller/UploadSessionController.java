@@ -0,0 +1,132 @@
+package com.filesharing.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.UploadSession;
+import com.filesharing.service.QuotaService;
+import com.filesharing.service.UploadSessionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 分片上传：创建会话、并行上传编号分片、查询已收到的分片、提交合并
+@RestController
+@RequestMapping("/api/files/uploads")
+@CrossOrigin(origins = "*")
+public class UploadSessionController {
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @RequestParam String fileName,
+            @RequestParam long totalSize,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(required = false) String contentType,
+            @RequestParam(required = false) String remark,
+            @RequestParam(required = false) String password,
+            @RequestParam(required = false) Long expiresIn,
+            @RequestParam(required = false) Integer maxDownloads,
+            HttpServletRequest request) throws IOException {
+        UploadSession session = uploadSessionService.createSession(fileName, totalSize, chunkSize,
+                contentType, remark, password, expiresIn, maxDownloads, quotaService.resolveClientId(request));
+        return ResponseEntity.ok(new UploadSessionResponse(session, List.of()));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) throws IOException {
+        UploadSession session = uploadSessionService.getSession(uploadId);
+        return ResponseEntity.ok(new UploadSessionResponse(session, uploadSessionService.getReceivedChunks(uploadId)));
+    }
+
+    // 分片内容为原始请求体，直接从Servlet输入流写入磁盘
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            HttpServletRequest request) throws IOException {
+        long size;
+        try (InputStream in = request.getInputStream()) {
+            size = uploadSessionService.writeChunk(uploadId, index, in);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("index", index);
+        response.put("size", size);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<Map<String, Object>> commit(@PathVariable String uploadId) throws IOException {
+        FileEntity fileEntity = uploadSessionService.commit(uploadId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", fileEntity.getId());
+        response.put("fileName", fileEntity.getFileName());
+        response.put("fileType", fileEntity.getFileType());
+        response.put("size", fileEntity.getFileSize());
+        response.put("remark", fileEntity.getRemark());
+        response.put("createTime", fileEntity.getCreateTime());
+        response.put("expireTime", fileEntity.getExpireTime());
+        response.put("maxDownloads", fileEntity.getMaxDownloads());
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<String> abort(@PathVariable String uploadId) throws IOException {
+        uploadSessionService.abort(uploadId);
+        return ResponseEntity.ok("Upload session deleted successfully");
+    }
+
+    private static class UploadSessionResponse {
+        private String uploadId;
+        private String fileName;
+        private long totalSize;
+        private int chunkSize;
+        private int chunkCount;
+        private List<Integer> receivedChunks;
+
+        public UploadSessionResponse(UploadSession session, List<Integer> receivedChunks) {
+            this.uploadId = session.getId();
+            this.fileName = session.getFileName();
+            this.totalSize = session.getTotalSize();
+            this.chunkSize = session.getChunkSize();
+            this.chunkCount = session.getChunkCount();
+            this.receivedChunks = receivedChunks;
+        }
+
+        public String getUploadId() {
+            return uploadId;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getTotalSize() {
+            return totalSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        public List<Integer> getReceivedChunks() {
+            return receivedChunks;
+        }
+    }
+}
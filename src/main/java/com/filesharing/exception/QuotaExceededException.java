@@ -0,0 +1,8 @@
+package com.filesharing.exception;
+
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
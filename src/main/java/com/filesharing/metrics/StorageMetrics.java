@@ -0,0 +1,108 @@
+package com.filesharing.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.filesharing.repository.BlobRecordRepository;
+import com.filesharing.repository.FileRepository;
+import com.filesharing.service.HotFileCache;
+import com.filesharing.storage.CompressionService;
+
+import java.util.function.LongSupplier;
+
+// 存储占用、热点缓存和压缩的指标
+@Component
+public class StorageMetrics implements MeterBinder {
+
+    // 存储字节数需要汇总查询，抓取间隔内复用上次的结果
+    private static final long REFRESH_MILLIS = 60 * 1000;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private BlobRecordRepository blobRecordRepository;
+
+    @Autowired
+    private HotFileCache hotFileCache;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filesharing.storage.bytes", new CachedValue(fileRepository::sumStoredFileSize), CachedValue::get)
+                .description("Sum of the original sizes of all stored files")
+                .baseUnit("bytes")
+                .tag("kind", "logical")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("filesharing.storage.bytes", new CachedValue(fileRepository::sumStoredBlobSize), CachedValue::get)
+                .description("Bytes of all stored files after compression, before deduplication")
+                .baseUnit("bytes")
+                .tag("kind", "stored")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("filesharing.storage.bytes", new CachedValue(blobRecordRepository::sumReferencedBytes), CachedValue::get)
+                .description("Bytes on disk after deduplication and compression")
+                .baseUnit("bytes")
+                .tag("kind", "physical")
+                .strongReference(true)
+                .register(registry);
+
+        Gauge.builder("filesharing.cache.bytes", hotFileCache, HotFileCache::getWeight)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("filesharing.cache.requests", hotFileCache, HotFileCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filesharing.cache.requests", hotFileCache, HotFileCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filesharing.cache.evictions", hotFileCache, HotFileCache::getEvictionCount)
+                .register(registry);
+
+        FunctionCounter.builder("filesharing.compression.bytes", compressionService, CompressionService::getOriginalBytes)
+                .baseUnit("bytes")
+                .tag("kind", "original")
+                .register(registry);
+        FunctionCounter.builder("filesharing.compression.bytes", compressionService, CompressionService::getCompressedBytes)
+                .baseUnit("bytes")
+                .tag("kind", "compressed")
+                .register(registry);
+        FunctionCounter.builder("filesharing.compression.cpu", compressionService, s -> s.getCompressNanos() / 1e9)
+                .baseUnit("seconds")
+                .tag("operation", "compress")
+                .register(registry);
+        FunctionCounter.builder("filesharing.compression.cpu", compressionService, s -> s.getDecompressNanos() / 1e9)
+                .baseUnit("seconds")
+                .tag("operation", "decompress")
+                .register(registry);
+    }
+
+    private static class CachedValue {
+        private final LongSupplier supplier;
+
+        private volatile long value;
+
+        private volatile long refreshedAt;
+
+        CachedValue(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        double get() {
+            long now = System.currentTimeMillis();
+            if (now - refreshedAt > REFRESH_MILLIS) {
+                value = supplier.getAsLong();
+                refreshedAt = now;
+            }
+            return value;
+        }
+    }
+}
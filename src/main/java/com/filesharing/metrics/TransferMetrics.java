@@ -0,0 +1,100 @@
+package com.filesharing.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// 上传和下载的耗时、字节数以及正在进行的传输数
+@Component
+public class TransferMetrics {
+
+    public static final String MODE_STREAM = "stream";
+    public static final String MODE_STORED = "stored";
+    public static final String MODE_RANGES = "ranges";
+    public static final String MODE_SENDFILE = "sendfile";
+    public static final String MODE_ZIP = "zip";
+
+    private final MeterRegistry registry;
+
+    private final LongTaskTimer activeUploads;
+
+    private final LongTaskTimer activeDownloads;
+
+    @Autowired
+    public TransferMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.activeUploads = LongTaskTimer.builder("filesharing.transfers.active")
+                .description("Transfers in progress")
+                .tag("direction", "upload")
+                .register(registry);
+        this.activeDownloads = LongTaskTimer.builder("filesharing.transfers.active")
+                .description("Transfers in progress")
+                .tag("direction", "download")
+                .register(registry);
+    }
+
+    public LongTaskTimer.Sample startUpload() {
+        return activeUploads.start();
+    }
+
+    // bytes为上传的原始字节数，与是否压缩存储无关
+    public void recordUpload(LongTaskTimer.Sample active, long bytes, boolean success) {
+        long nanos = active.stop();
+        timer("filesharing.upload", success).record(nanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            size("filesharing.upload.size").record(bytes);
+        }
+    }
+
+    // 统计由调用方完成的一次下载输出，mode区分解压流、原样发送的压缩字节、多区间响应和打包下载
+    public long recordDownload(String mode, Transfer transfer) throws IOException {
+        LongTaskTimer.Sample active = activeDownloads.start();
+        boolean success = false;
+        long bytes = 0;
+        try {
+            bytes = transfer.run();
+            success = true;
+            return bytes;
+        } finally {
+            long nanos = active.stop();
+            timer("filesharing.download", success, "mode", mode).record(nanos, TimeUnit.NANOSECONDS);
+            if (success) {
+                size("filesharing.download.size", "mode", mode).record(bytes);
+            }
+        }
+    }
+
+    // sendfile由Tomcat在请求处理结束后完成，只能统计字节数
+    public void recordSendfile(long bytes) {
+        size("filesharing.download.size", "mode", MODE_SENDFILE).record(bytes);
+    }
+
+    // 同名同标签的指标只注册一次，之后从注册表中查找
+    private Timer timer(String name, boolean success, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary size(String name, String... tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @FunctionalInterface
+    public interface Transfer {
+        long run() throws IOException;
+    }
+}
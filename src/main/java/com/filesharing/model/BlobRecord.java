@@ -0,0 +1,71 @@
+package com.filesharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// 按内容哈希去重后的存储对象，ref_count记录引用它的文件数
+@Entity
+@Table(name = "blobs", indexes = @Index(name = "idx_blobs_ref_count_release_time", columnList = "ref_count, release_time"))
+public class BlobRecord {
+    @Id
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
+    @Column(name = "blob_size")
+    private Long blobSize;
+
+    @Column(name = "ref_count")
+    private Integer refCount;
+
+    // 引用数降为0的时间，超过宽限期后由后台任务删除存储文件
+    @Column(name = "release_time")
+    private Long releaseTime;
+
+    @Column(name = "create_time")
+    private Long createTime;
+
+    public BlobRecord() {}
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public Long getBlobSize() {
+        return blobSize;
+    }
+
+    public void setBlobSize(Long blobSize) {
+        this.blobSize = blobSize;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public Long getReleaseTime() {
+        return releaseTime;
+    }
+
+    public void setReleaseTime(Long releaseTime) {
+        this.releaseTime = releaseTime;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Long createTime) {
+        this.createTime = createTime;
+    }
+}
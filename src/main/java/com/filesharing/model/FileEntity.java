@@ -1,43 +1,145 @@
 package com.filesharing.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
+import java.sql.Blob;
+
 @Entity
-@Table(name = "files")
+@Table(name = "files", indexes = {
+        @Index(name = "idx_files_storage_key", columnList = "storage_key"),
+        @Index(name = "idx_files_create_time_id", columnList = "create_time desc, id desc"),
+        @Index(name = "idx_files_type_create_time", columnList = "file_type, create_time desc"),
+        @Index(name = "idx_files_file_name", columnList = "file_name"),
+        @Index(name = "idx_files_expire_time", columnList = "expire_time"),
+        @Index(name = "idx_files_processing_status", columnList = "processing_status")
+})
 public class FileEntity {
+    public static final String PROCESSING_PENDING = "PENDING";
+
+    public static final String PROCESSING_DONE = "DONE";
+
+    public static final String PROCESSING_FAILED = "FAILED";
+
+    public static final String ID_SEQUENCE = "files_seq";
+
+    // 每次从序列取一段id，批量插入时Hibernate可以使用JDBC批处理（IDENTITY主键不支持）
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
+    @Column(name = "file_name")
     private String fileName;
     
+    @Column(name = "file_type")
     private String fileType;
     
+    // 旧版本直接存放在数据库中的文件内容，迁移到BlobStore后置空
     @Lob
-    private byte[] data;
+    private Blob data;
+    
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+    
+    // 写入时记录文件大小，列表查询无需读取文件内容
+    private Long fileSize;
+    
+    // 存储时的压缩编码，为空表示原样存储
+    @Column(length = 16)
+    private String encoding;
+    
+    // 实际占用的存储大小，压缩后小于fileSize
+    private Long storedSize;
     
+    @Column(name = "create_time")
     private Long createTime;
     
     private String remark;
     
     private String password;
     
+    // 过期时间，为空表示永不过期；达到最大下载次数时也会被设为当前时间
+    @Column(name = "expire_time")
+    private Long expireTime;
+    
+    // 最大下载次数，为空表示不限制
+    @Column(name = "max_downloads")
+    private Integer maxDownloads;
+    
+    @Column(name = "download_count")
+    private Integer downloadCount = 0;
+    
+    // 上传的客户端，用于按客户端统计存储配额
+    @Column(name = "client_id", length = 64)
+    private String clientId;
+    
+    // 上传后异步处理的状态，为空表示升级前上传、未经处理的文件
+    @Column(name = "processing_status", length = 16)
+    private String processingStatus;
+    
+    // 按文件头魔数识别的类型，无法识别时为空
+    @Column(name = "detected_type")
+    private String detectedType;
+    
+    // 原始内容的SHA-256，原样存储时与存储键相同
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    // 原始内容的CRC-32，打包下载时原样存储的条目需要预先写入，升级前上传的文件为空
+    @Column(name = "crc32")
+    private Long crc32;
+    
+    // 缩略图单独存放在file_thumbnails表中，列表只读取该标志
+    @Column(name = "has_thumbnail")
+    private Boolean hasThumbnail;
+    
     public FileEntity() {}
     
-    public FileEntity(String fileName, String fileType, byte[] data, String remark, String password) {
+    public FileEntity(String fileName, String fileType, String storageKey, long fileSize, String remark, String password) {
         this.fileName = fileName;
         this.fileType = fileType;
-        this.data = data;
+        this.storageKey = storageKey;
+        this.fileSize = fileSize;
         this.remark = remark;
         this.password = password;
         this.createTime = System.currentTimeMillis();
     }
     
+    // 复制除旧版LOB内容以外的所有字段，用于缓存和返回独立的实例
+    public FileEntity copyMetadata() {
+        FileEntity copy = new FileEntity();
+        copy.id = id;
+        copy.fileName = fileName;
+        copy.fileType = fileType;
+        copy.storageKey = storageKey;
+        copy.fileSize = fileSize;
+        copy.encoding = encoding;
+        copy.storedSize = storedSize;
+        copy.createTime = createTime;
+        copy.remark = remark;
+        copy.password = password;
+        copy.expireTime = expireTime;
+        copy.maxDownloads = maxDownloads;
+        copy.downloadCount = downloadCount;
+        copy.clientId = clientId;
+        copy.processingStatus = processingStatus;
+        copy.detectedType = detectedType;
+        copy.contentHash = contentHash;
+        copy.crc32 = crc32;
+        copy.hasThumbnail = hasThumbnail;
+        return copy;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -62,14 +164,46 @@ public class FileEntity {
         this.fileType = fileType;
     }
     
-    public byte[] getData() {
+    public Blob getData() {
         return data;
     }
     
-    public void setData(byte[] data) {
+    public void setData(Blob data) {
         this.data = data;
     }
     
+    public String getStorageKey() {
+        return storageKey;
+    }
+    
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+    
+    public Long getFileSize() {
+        return fileSize;
+    }
+    
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+    
+    public String getEncoding() {
+        return encoding;
+    }
+    
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+    
+    public Long getStoredSize() {
+        return storedSize;
+    }
+    
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+    
     public Long getCreateTime() {
         return createTime;
     }
@@ -93,4 +227,76 @@ public class FileEntity {
     public void setPassword(String password) {
         this.password = password;
     }
-}
\ No newline at end of file
+    
+    public Long getExpireTime() {
+        return expireTime;
+    }
+    
+    public void setExpireTime(Long expireTime) {
+        this.expireTime = expireTime;
+    }
+    
+    public Integer getMaxDownloads() {
+        return maxDownloads;
+    }
+    
+    public void setMaxDownloads(Integer maxDownloads) {
+        this.maxDownloads = maxDownloads;
+    }
+    
+    public Integer getDownloadCount() {
+        return downloadCount;
+    }
+    
+    public void setDownloadCount(Integer downloadCount) {
+        this.downloadCount = downloadCount;
+    }
+    
+    public String getClientId() {
+        return clientId;
+    }
+    
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+    
+    public String getProcessingStatus() {
+        return processingStatus;
+    }
+    
+    public void setProcessingStatus(String processingStatus) {
+        this.processingStatus = processingStatus;
+    }
+    
+    public String getDetectedType() {
+        return detectedType;
+    }
+    
+    public void setDetectedType(String detectedType) {
+        this.detectedType = detectedType;
+    }
+    
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public Long getCrc32() {
+        return crc32;
+    }
+    
+    public void setCrc32(Long crc32) {
+        this.crc32 = crc32;
+    }
+    
+    public Boolean getHasThumbnail() {
+        return hasThumbnail;
+    }
+    
+    public void setHasThumbnail(Boolean hasThumbnail) {
+        this.hasThumbnail = hasThumbnail;
+    }
+}
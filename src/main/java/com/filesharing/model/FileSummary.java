@@ -0,0 +1,64 @@
+package com.filesharing.model;
+
+// 文件列表使用的元数据投影，不包含文件内容
+public class FileSummary {
+    private final Long id;
+
+    private final String fileName;
+
+    private final String fileType;
+
+    private final Long fileSize;
+
+    private final Long createTime;
+
+    private final String remark;
+
+    private final boolean passwordProtected;
+
+    private final boolean hasThumbnail;
+
+    public FileSummary(Long id, String fileName, String fileType, Long fileSize, Long createTime, String remark,
+                       Boolean passwordProtected, Boolean hasThumbnail) {
+        this.id = id;
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.createTime = createTime;
+        this.remark = remark;
+        this.passwordProtected = Boolean.TRUE.equals(passwordProtected);
+        this.hasThumbnail = Boolean.TRUE.equals(hasThumbnail);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public boolean isPasswordProtected() {
+        return passwordProtected;
+    }
+
+    public boolean isHasThumbnail() {
+        return hasThumbnail;
+    }
+}
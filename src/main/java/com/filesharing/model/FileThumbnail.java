@@ -0,0 +1,75 @@
+package com.filesharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+// 图片文件的缩略图，与files表分开存放，列表查询不读取缩略图内容
+@Entity
+@Table(name = "file_thumbnails")
+public class FileThumbnail {
+    @Id
+    @Column(name = "file_id")
+    private Long fileId;
+
+    @Lob
+    private byte[] content;
+
+    @Column(name = "content_type", length = 32)
+    private String contentType;
+
+    private Integer width;
+
+    private Integer height;
+
+    public FileThumbnail() {}
+
+    public FileThumbnail(byte[] content, String contentType, int width, int height) {
+        this.content = content;
+        this.contentType = contentType;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Long getFileId() {
+        return fileId;
+    }
+
+    public void setFileId(Long fileId) {
+        this.fileId = fileId;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+}
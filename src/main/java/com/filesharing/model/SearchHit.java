@@ -0,0 +1,57 @@
+package com.filesharing.model;
+
+// 搜索结果，文件返回文件名，文本返回列表预览；受密码保护的文本不返回预览
+public class SearchHit {
+    private final Long id;
+
+    private final String fileName;
+
+    private final String remark;
+
+    private final String preview;
+
+    private final Long createTime;
+
+    private final boolean passwordProtected;
+
+    private final Long size;
+
+    public SearchHit(Long id, String fileName, String remark, String preview, Long createTime,
+                     boolean passwordProtected, Long size) {
+        this.id = id;
+        this.fileName = fileName;
+        this.remark = remark;
+        this.preview = preview;
+        this.createTime = createTime;
+        this.passwordProtected = passwordProtected;
+        this.size = size;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public boolean isPasswordProtected() {
+        return passwordProtected;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+}
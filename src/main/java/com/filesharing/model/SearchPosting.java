@@ -0,0 +1,79 @@
+package com.filesharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import com.filesharing.search.Tokenizer;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// 倒排索引的一条记录，表示词条出现在某个文件或文本中；由SearchIndexService通过JDBC读写，实体只用于建表
+@Entity
+@IdClass(SearchPosting.Key.class)
+// 按词条查找并按doc_id倒序分页直接使用主键 (term, doc_type, doc_id)，另建索引只用于删除或重建单个文档
+@Table(name = "search_postings", indexes = {
+        @Index(name = "idx_search_postings_doc", columnList = "doc_id, doc_type")
+})
+public class SearchPosting {
+    public static final String TYPE_FILE = "F";
+    public static final String TYPE_TEXT = "T";
+
+    @Id
+    @Column(length = Tokenizer.MAX_TERM_LENGTH)
+    private String term;
+
+    @Id
+    @Column(name = "doc_type", length = 1)
+    private String docType;
+
+    @Id
+    @Column(name = "doc_id")
+    private Long docId;
+
+    public SearchPosting() {}
+
+    public String getTerm() {
+        return term;
+    }
+
+    public String getDocType() {
+        return docType;
+    }
+
+    public Long getDocId() {
+        return docId;
+    }
+
+    public static class Key implements Serializable {
+        private String term;
+
+        private String docType;
+
+        private Long docId;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(term, key.term) && Objects.equals(docType, key.docType)
+                    && Objects.equals(docId, key.docId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(term, docType, docId);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.filesharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// 按客户端累计的存储用量，上传和删除时增量更新，client_id为"*"的行记录所有文件的总量
+@Entity
+@Table(name = "storage_usage")
+public class StorageUsage {
+    @Id
+    @Column(name = "client_id", length = 64)
+    private String clientId;
+
+    @Column(name = "used_bytes")
+    private Long usedBytes;
+
+    @Column(name = "file_count")
+    private Long fileCount;
+
+    @Column(name = "update_time")
+    private Long updateTime;
+
+    public StorageUsage() {}
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public void setUsedBytes(Long usedBytes) {
+        this.usedBytes = usedBytes;
+    }
+
+    public Long getFileCount() {
+        return fileCount;
+    }
+
+    public void setFileCount(Long fileCount) {
+        this.fileCount = fileCount;
+    }
+
+    public Long getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Long updateTime) {
+        this.updateTime = updateTime;
+    }
+}
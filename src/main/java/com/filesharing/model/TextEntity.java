@@ -1,28 +1,71 @@
 package com.filesharing.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
+import com.filesharing.util.TextPreviewUtil;
+
 @Entity
-@Table(name = "texts")
+@Table(name = "texts", indexes = {
+        @Index(name = "idx_texts_create_time_id", columnList = "create_time desc, id desc"),
+        @Index(name = "idx_texts_remark", columnList = "remark"),
+        @Index(name = "idx_texts_expire_time", columnList = "expire_time")
+})
 public class TextEntity {
+    public static final String ID_SEQUENCE = "texts_seq";
+
+    // 每次从序列取一段id，批量插入时Hibernate可以使用JDBC批处理（IDENTITY主键不支持）
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Lob
     private String content;
 
+    // 较长的文本压缩后存储在此列，content为空
+    @Lob
+    @Column(name = "compressed_content")
+    private byte[] compressedContent;
+
+    @Column(length = 16)
+    private String encoding;
+
+    // 原始文本的UTF-8字节数
+    @Column(name = "byte_count")
+    private Long byteCount;
+
+    // 列表中显示的预览，写入时截取开头的部分，列表查询不读取content
+    @Column(length = TextPreviewUtil.PREVIEW_LENGTH)
+    private String preview;
+
+    @Column(name = "line_count")
+    private Long lineCount;
+
+    // 原始文本的SHA-256，用作ETag
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "create_time")
     private Long createTime;
     
     private String remark;
     
     private String password;
     
+    // 过期时间，为空表示永不过期
+    @Column(name = "expire_time")
+    private Long expireTime;
+    
     public TextEntity() {}
     
     public TextEntity(String content, String remark, String password) {
@@ -56,6 +99,38 @@ public class TextEntity {
         this.content = content;
     }
     
+    public byte[] getCompressedContent() {
+        return compressedContent;
+    }
+    
+    public void setCompressedContent(byte[] compressedContent) {
+        this.compressedContent = compressedContent;
+    }
+    
+    public String getEncoding() {
+        return encoding;
+    }
+    
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+    
+    public Long getByteCount() {
+        return byteCount;
+    }
+    
+    public void setByteCount(Long byteCount) {
+        this.byteCount = byteCount;
+    }
+    
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
     public String getRemark() {
         return remark;
     }
@@ -71,4 +146,28 @@ public class TextEntity {
     public void setPassword(String password) {
         this.password = password;
     }
-}
\ No newline at end of file
+    
+    public Long getExpireTime() {
+        return expireTime;
+    }
+    
+    public void setExpireTime(Long expireTime) {
+        this.expireTime = expireTime;
+    }
+    
+    public String getPreview() {
+        return preview;
+    }
+    
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+    
+    public Long getLineCount() {
+        return lineCount;
+    }
+    
+    public void setLineCount(Long lineCount) {
+        this.lineCount = lineCount;
+    }
+}
@@ -0,0 +1,57 @@
+package com.filesharing.model;
+
+// 文本的校验信息和存储方式投影，不包含文本内容，用于条件请求和流式下载
+public class TextHeader {
+    private final Long id;
+
+    private final String contentHash;
+
+    private final Long createTime;
+
+    private final String password;
+
+    private final Long expireTime;
+
+    private final String encoding;
+
+    private final Long byteCount;
+
+    public TextHeader(Long id, String contentHash, Long createTime, String password, Long expireTime,
+                      String encoding, Long byteCount) {
+        this.id = id;
+        this.contentHash = contentHash;
+        this.createTime = createTime;
+        this.password = password;
+        this.expireTime = expireTime;
+        this.encoding = encoding;
+        this.byteCount = byteCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public Long getExpireTime() {
+        return expireTime;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public Long getByteCount() {
+        return byteCount;
+    }
+}
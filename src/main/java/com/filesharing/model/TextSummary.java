@@ -0,0 +1,64 @@
+package com.filesharing.model;
+
+import java.nio.charset.StandardCharsets;
+
+// 文本列表使用的投影，只包含写入时生成的预览，不读取完整内容
+public class TextSummary {
+    private final Long id;
+
+    private final String preview;
+
+    private final String remark;
+
+    private final Long createTime;
+
+    private final boolean passwordProtected;
+
+    private final Long byteCount;
+
+    private final Long lineCount;
+
+    public TextSummary(Long id, String preview, String remark, Long createTime, Boolean passwordProtected,
+                       Long byteCount, Long lineCount) {
+        this.id = id;
+        this.preview = preview;
+        this.remark = remark;
+        this.createTime = createTime;
+        this.passwordProtected = Boolean.TRUE.equals(passwordProtected);
+        this.byteCount = byteCount;
+        this.lineCount = lineCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public boolean isPasswordProtected() {
+        return passwordProtected;
+    }
+
+    public Long getByteCount() {
+        return byteCount;
+    }
+
+    public Long getLineCount() {
+        return lineCount;
+    }
+
+    // 预览短于原文时需要打开详情查看完整内容
+    public boolean isTruncated() {
+        return byteCount != null && preview != null && byteCount > preview.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
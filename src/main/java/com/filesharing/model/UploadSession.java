@@ -0,0 +1,182 @@
+package com.filesharing.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "upload_sessions", indexes = @Index(name = "idx_upload_sessions_update_time", columnList = "update_time"))
+public class UploadSession {
+    public static final String STATUS_OPEN = "OPEN";
+
+    public static final String STATUS_COMMITTING = "COMMITTING";
+
+    // 文件已保存，只剩清理分片目录和会话记录；清理失败时由定时任务删除
+    public static final String STATUS_COMMITTED = "COMMITTED";
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private String fileName;
+
+    private String fileType;
+
+    private Long totalSize;
+
+    private Integer chunkSize;
+
+    private Integer chunkCount;
+
+    private String remark;
+
+    private String password;
+
+    // 有效期秒数，提交时从提交时间起算
+    private Long expiresIn;
+
+    private Integer maxDownloads;
+
+    @Column(length = 64)
+    private String clientId;
+
+    @Column(length = 16)
+    private String status;
+
+    private Long createTime;
+
+    // 最近一次收到分片的时间，用于清理被放弃的上传
+    @Column(name = "update_time")
+    private Long updateTime;
+
+    public UploadSession() {}
+
+    public UploadSession(String id, String fileName, String fileType, long totalSize, int chunkSize, int chunkCount,
+                         String remark, String password) {
+        this.id = id;
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.chunkCount = chunkCount;
+        this.remark = remark;
+        this.password = password;
+        this.status = STATUS_OPEN;
+        this.createTime = System.currentTimeMillis();
+        this.updateTime = this.createTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(Integer chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    public Integer getMaxDownloads() {
+        return maxDownloads;
+    }
+
+    public void setMaxDownloads(Integer maxDownloads) {
+        this.maxDownloads = maxDownloads;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Long createTime) {
+        this.createTime = createTime;
+    }
+
+    public Long getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Long updateTime) {
+        this.updateTime = updateTime;
+    }
+}
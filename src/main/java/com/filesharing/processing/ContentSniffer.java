@@ -0,0 +1,81 @@
+package com.filesharing.processing;
+
+import java.nio.charset.StandardCharsets;
+
+// 按文件开头的魔数识别内容类型，不依赖文件扩展名和客户端声明的类型
+public class ContentSniffer {
+
+    // 识别所需读取的文件头字节数
+    public static final int HEADER_SIZE = 16;
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+
+    private static final byte[] ZIP = {'P', 'K', 0x03, 0x04};
+
+    private static final byte[] GZIP = {0x1F, (byte) 0x8B};
+
+    private static final byte[] SEVEN_ZIP = {'7', 'z', (byte) 0xBC, (byte) 0xAF, 0x27, 0x1C};
+
+    private static final byte[] OLE = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    // 返回null表示无法识别
+    public static String detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, PNG)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, JPEG)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0, ascii("GIF87a")) || startsWith(header, length, 0, ascii("GIF89a"))) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, ascii("RIFF")) && startsWith(header, length, 8, ascii("WEBP"))) {
+            return "image/webp";
+        }
+        if (startsWith(header, length, 0, ascii("%PDF-"))) {
+            return "application/pdf";
+        }
+        // docx、xlsx等Office Open XML文件也是zip格式，由上传时声明的类型区分
+        if (startsWith(header, length, 0, ZIP)) {
+            return "application/zip";
+        }
+        if (startsWith(header, length, 0, GZIP)) {
+            return "application/gzip";
+        }
+        if (startsWith(header, length, 0, SEVEN_ZIP)) {
+            return "application/x-7z-compressed";
+        }
+        if (startsWith(header, length, 0, ascii("Rar!"))) {
+            return "application/vnd.rar";
+        }
+        // 旧版doc、xls使用的OLE复合文档格式
+        if (startsWith(header, length, 0, OLE)) {
+            return "application/x-ole-storage";
+        }
+        if (startsWith(header, length, 4, ascii("ftyp"))) {
+            return "video/mp4";
+        }
+        if (startsWith(header, length, 0, ascii("ID3"))) {
+            return "audio/mpeg";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String magic) {
+        return magic.getBytes(StandardCharsets.US_ASCII);
+    }
+}
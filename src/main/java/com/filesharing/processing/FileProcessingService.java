@@ -0,0 +1,191 @@
+package com.filesharing.processing;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.config.ProcessingConfig;
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.FileThumbnail;
+import com.filesharing.repository.FileRepository;
+import com.filesharing.repository.FileThumbnailRepository;
+import com.filesharing.service.HotFileCache;
+import com.filesharing.storage.BlobStore;
+import com.filesharing.storage.CompressionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// 上传完成后在有界线程池中识别内容类型、计算哈希和生成缩略图，不占用上传请求的线程
+@Service
+public class FileProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileProcessingService.class);
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FileThumbnailRepository fileThumbnailRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    @Autowired
+    private HotFileCache hotFileCache;
+
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    private final ProcessingConfig processingConfig;
+
+    // 队列满时拒绝提交，文件保持待处理状态，由定时任务稍后重新提交
+    private final ThreadPoolExecutor executor;
+
+    // 已提交尚未处理完的文件，避免定时任务重复提交
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public FileProcessingService(ProcessingConfig processingConfig) {
+        this.processingConfig = processingConfig;
+        this.executor = new ThreadPoolExecutor(processingConfig.getThreads(), processingConfig.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(processingConfig.getQueueCapacity()),
+                Thread.ofPlatform().name("file-processing-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean isEnabled() {
+        return processingConfig.isEnabled();
+    }
+
+    public void submit(Long fileId) {
+        if (!processingConfig.isEnabled() || !queued.add(fileId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(fileId);
+                } finally {
+                    queued.remove(fileId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(fileId);
+            log.debug("Processing queue is full, file {} will be processed later", fileId);
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    // 补充提交因队列已满或重启而未处理的文件
+    @Scheduled(fixedDelayString = "${app.processing.sweep-interval:PT1M}")
+    public void submitPending() {
+        if (!processingConfig.isEnabled()) {
+            return;
+        }
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Long> pending = fileRepository.findIdsByProcessingStatus(FileEntity.PROCESSING_PENDING,
+                PageRequest.ofSize(capacity));
+        pending.forEach(this::submit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void process(Long fileId) {
+        FileEntity file = fileRepository.findById(fileId).orElse(null);
+        if (file == null || !FileEntity.PROCESSING_PENDING.equals(file.getProcessingStatus())) {
+            return;
+        }
+        try {
+            byte[] header = new byte[ContentSniffer.HEADER_SIZE];
+            int headerLength;
+            String contentHash;
+            try (InputStream in = openContent(file)) {
+                if (file.getEncoding() == null) {
+                    // 原样存储的文件存储键就是内容的SHA-256，只需读取文件头
+                    headerLength = in.readNBytes(header, 0, header.length);
+                    contentHash = file.getStorageKey();
+                } else {
+                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                    DigestInputStream digestIn = new DigestInputStream(in, digest);
+                    headerLength = digestIn.readNBytes(header, 0, header.length);
+                    digestIn.transferTo(OutputStream.nullOutputStream());
+                    contentHash = HexFormat.of().formatHex(digest.digest());
+                }
+            }
+            String detectedType = ContentSniffer.detect(header, headerLength);
+
+            // 有密码的文件不生成缩略图，避免在列表中泄露内容
+            boolean hasThumbnail = false;
+            if (file.getPassword() == null && ThumbnailGenerator.supports(detectedType)) {
+                FileThumbnail thumbnail = createThumbnail(file, detectedType);
+                if (thumbnail != null) {
+                    thumbnail.setFileId(fileId);
+                    fileThumbnailRepository.save(thumbnail);
+                    hasThumbnail = true;
+                }
+            }
+
+            // 只替换无法根据扩展名判断的类型，保留上传时声明的具体类型
+            String fileType = detectedType != null && OCTET_STREAM.equals(file.getFileType()) ?
+                    detectedType : file.getFileType();
+            int updated = fileRepository.completeProcessing(fileId, FileEntity.PROCESSING_DONE, detectedType, fileType,
+                    contentHash, hasThumbnail);
+            if (updated == 0 && hasThumbnail) {
+                // 处理期间文件已被删除
+                fileThumbnailRepository.deleteById(fileId);
+            }
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            log.warn("Could not process file {}: {}", fileId, e.getMessage());
+            fileRepository.updateProcessingStatus(fileId, FileEntity.PROCESSING_FAILED);
+        } finally {
+            hotFileCache.invalidate(fileId);
+        }
+    }
+
+    // 缩略图生成失败不影响其他处理结果
+    private FileThumbnail createThumbnail(FileEntity file, String contentType) {
+        try (InputStream in = openContent(file)) {
+            return thumbnailGenerator.generate(in, contentType);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not create thumbnail for file {}: {}", file.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private InputStream openContent(FileEntity file) throws IOException {
+        InputStream in = blobStore.open(file.getStorageKey());
+        return file.getEncoding() != null ? compressionService.decompress(in) : in;
+    }
+}
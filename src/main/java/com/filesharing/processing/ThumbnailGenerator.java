@@ -0,0 +1,80 @@
+package com.filesharing.processing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.filesharing.config.ProcessingConfig;
+import com.filesharing.model.FileThumbnail;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+// 为jpg和png图片生成缩略图，png保留透明通道
+@Component
+public class ThumbnailGenerator {
+
+    @Autowired
+    private ProcessingConfig processingConfig;
+
+    public static boolean supports(String contentType) {
+        return "image/jpeg".equals(contentType) || "image/png".equals(contentType);
+    }
+
+    // 返回null表示图片无法解码或像素数超过限制
+    public FileThumbnail generate(InputStream in, String contentType) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // 先只读取图片尺寸，超大图片不解码
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > processingConfig.getMaxImagePixels()) {
+                    return null;
+                }
+                double scale = Math.min(1.0, (double) processingConfig.getThumbnailSize() / Math.max(width, height));
+                int targetWidth = Math.max(1, (int) Math.round(width * scale));
+                int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+                // 解码时隔行隔列采样，只保留缩放所需的两倍左右的像素，不分配原图大小的缓冲区
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, (int) (1 / scale) / 2);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                boolean png = "image/png".equals(contentType);
+                BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                        png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = target.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                if (!ImageIO.write(target, png ? "png" : "jpeg", out)) {
+                    return null;
+                }
+                return new FileThumbnail(out.toByteArray(), contentType, targetWidth, targetHeight);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
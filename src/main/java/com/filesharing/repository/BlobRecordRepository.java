@@ -0,0 +1,60 @@
+package com.filesharing.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filesharing.model.BlobRecord;
+
+import java.util.List;
+
+@Repository
+public interface BlobRecordRepository extends JpaRepository<BlobRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update BlobRecord b set b.refCount = b.refCount + 1, b.releaseTime = null where b.storageKey = :key")
+    int incrementRefCount(@Param("key") String key);
+
+    // 主键冲突说明并发上传了相同内容，由调用方改为增加引用数
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO blobs (storage_key, blob_size, ref_count, create_time) VALUES (:key, :size, 1, :now)",
+            nativeQuery = true)
+    int insertFirstReference(@Param("key") String key, @Param("size") long size, @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("update BlobRecord b set b.refCount = b.refCount - 1, "
+            + "b.releaseTime = case when b.refCount <= 1 then :now else b.releaseTime end "
+            + "where b.storageKey = :key")
+    int decrementRefCount(@Param("key") String key, @Param("now") long now);
+
+    List<BlobRecord> findByRefCountLessThanEqualAndReleaseTimeLessThan(Integer refCount, Long releaseTime,
+                                                                      Pageable pageable);
+
+    // 只删除仍然没有引用的记录，期间被重新引用的对象会被保留
+    @Transactional
+    @Modifying
+    @Query("delete from BlobRecord b where b.storageKey = :key and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("key") String key);
+
+    // 为升级前已写入BlobStore的文件建立引用计数
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO blobs (storage_key, blob_size, ref_count, create_time) "
+            + "SELECT f.storage_key, MAX(COALESCE(f.stored_size, f.file_size)), COUNT(*), :now FROM files f "
+            + "WHERE f.storage_key IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM blobs b WHERE b.storage_key = f.storage_key) "
+            + "GROUP BY f.storage_key", nativeQuery = true)
+    int backfillFromFiles(@Param("now") long now);
+
+    @Query("select coalesce(sum(b.blobSize), 0) from BlobRecord b where b.refCount > 0")
+    long sumReferencedBytes();
+
+    long countByRefCountGreaterThan(Integer refCount);
+}
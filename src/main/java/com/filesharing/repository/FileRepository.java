@@ -1,10 +1,77 @@
 package com.filesharing.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.filesharing.model.FileEntity;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface FileRepository extends JpaRepository<FileEntity, Long> {
-}
\ No newline at end of file
+public interface FileRepository extends JpaRepository<FileEntity, Long>, FileRepositoryCustom {
+
+    long countByStorageKeyIsNotNull();
+
+    @Query("select coalesce(sum(f.fileSize), 0) from FileEntity f where f.storageKey is not null")
+    long sumStoredFileSize();
+
+    // 每个文件在存储中占用的字节数（压缩后、去重前），未压缩的文件没有storedSize，等于原始大小
+    @Query("select coalesce(sum(coalesce(f.storedSize, f.fileSize)), 0) from FileEntity f where f.storageKey is not null")
+    long sumStoredBlobSize();
+
+    long countByEncodingIsNotNull();
+
+    @Query("select coalesce(sum(f.fileSize), 0) from FileEntity f where f.encoding is not null")
+    long sumCompressedOriginalSize();
+
+    @Query("select coalesce(sum(f.storedSize), 0) from FileEntity f where f.encoding is not null")
+    long sumCompressedStoredSize();
+
+    List<FileEntity> findByStorageKeyIsNullAndDataIsNotNullOrderByIdAsc(Pageable pageable);
+
+    // 为旧数据补全文件大小，H2的OCTET_LENGTH只读取LOB元数据
+    @Modifying
+    @Query(value = "UPDATE files SET file_size = OCTET_LENGTH(data) WHERE file_size IS NULL AND data IS NOT NULL",
+            nativeQuery = true)
+    int backfillLegacyFileSizes();
+
+    // 按过期时间索引查找，只返回删除和释放配额所需的列
+    @Query("select f.id, f.storageKey, f.clientId, f.fileSize from FileEntity f where f.expireTime <= :now order by f.expireTime")
+    List<Object[]> findExpired(@Param("now") long now, Pageable pageable);
+
+    // 按id删除前只查询释放配额和存储所需的列，与findExpired的列相同
+    @Query("select f.id, f.storageKey, f.clientId, f.fileSize from FileEntity f where f.id in :ids")
+    List<Object[]> findDeleteInfo(@Param("ids") Collection<Long> ids);
+
+    // 原子地占用一次下载次数；最后一次下载时把过期时间设为当前时间，由清理任务按过期时间索引删除
+    @Transactional
+    @Modifying
+    @Query("update FileEntity f set f.downloadCount = f.downloadCount + 1, " +
+            "f.expireTime = case when f.downloadCount + 1 >= f.maxDownloads then :now else f.expireTime end " +
+            "where f.id = :id and f.downloadCount < f.maxDownloads and (f.expireTime is null or f.expireTime > :now)")
+    int consumeDownload(@Param("id") Long id, @Param("now") long now);
+
+    // 待处理的文件，由定时任务补充提交到处理队列
+    @Query("select f.id from FileEntity f where f.processingStatus = :status order by f.id")
+    List<Long> findIdsByProcessingStatus(@Param("status") String status, Pageable pageable);
+
+    // 只更新处理结果，不覆盖处理期间发生变化的下载次数等字段
+    @Transactional
+    @Modifying
+    @Query("update FileEntity f set f.processingStatus = :status, f.detectedType = :detectedType, "
+            + "f.fileType = :fileType, f.contentHash = :contentHash, f.hasThumbnail = :hasThumbnail where f.id = :id")
+    int completeProcessing(@Param("id") Long id, @Param("status") String status,
+                           @Param("detectedType") String detectedType, @Param("fileType") String fileType,
+                           @Param("contentHash") String contentHash, @Param("hasThumbnail") boolean hasThumbnail);
+
+    @Transactional
+    @Modifying
+    @Query("update FileEntity f set f.processingStatus = :status where f.id = :id")
+    int updateProcessingStatus(@Param("id") Long id, @Param("status") String status);
+}
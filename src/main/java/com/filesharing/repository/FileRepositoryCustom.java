@@ -0,0 +1,10 @@
+package com.filesharing.repository;
+
+import com.filesharing.model.FileSummary;
+
+import java.util.List;
+
+public interface FileRepositoryCustom {
+
+    List<FileSummary> findSummaries(ListQuery query, int maxResults);
+}
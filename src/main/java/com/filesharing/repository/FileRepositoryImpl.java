@@ -0,0 +1,58 @@
+package com.filesharing.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import com.filesharing.model.FileSummary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FileRepositoryImpl implements FileRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 只拼接实际使用的过滤条件，保证每种组合都能命中对应索引
+    @Override
+    public List<FileSummary> findSummaries(ListQuery query, int maxResults) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.filesharing.model.FileSummary(f.id, f.fileName, f.fileType, f.fileSize, "
+                        + "f.createTime, f.remark, case when f.password is null then false else true end, "
+                        + "f.hasThumbnail) "
+                        + "from FileEntity f where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        // 已过期但尚未被清理任务删除的记录不再列出
+        jpql.append(" and (f.expireTime is null or f.expireTime > :now)");
+        params.put("now", System.currentTimeMillis());
+        if (query.getCursorTime() != null) {
+            // 先用create_time范围条件定位索引起点，再排除同一时间戳中已返回的记录
+            jpql.append(" and f.createTime <= :cursorTime and (f.createTime < :cursorTime or f.id < :cursorId)");
+            params.put("cursorTime", query.getCursorTime());
+            params.put("cursorId", query.getCursorId());
+        }
+        if (query.getType() != null) {
+            jpql.append(" and f.fileType like :type escape '!'");
+            params.put("type", ListQuery.likePrefix(query.getType()));
+        }
+        if (query.getNamePrefix() != null) {
+            jpql.append(" and f.fileName like :namePrefix escape '!'");
+            params.put("namePrefix", ListQuery.likePrefix(query.getNamePrefix()));
+        }
+        if (query.getFrom() != null) {
+            jpql.append(" and f.createTime >= :from");
+            params.put("from", query.getFrom());
+        }
+        if (query.getTo() != null) {
+            jpql.append(" and f.createTime < :to");
+            params.put("to", query.getTo());
+        }
+        jpql.append(" order by f.createTime desc, f.id desc");
+
+        TypedQuery<FileSummary> typedQuery = entityManager.createQuery(jpql.toString(), FileSummary.class);
+        params.forEach(typedQuery::setParameter);
+        return typedQuery.setMaxResults(maxResults).getResultList();
+    }
+}
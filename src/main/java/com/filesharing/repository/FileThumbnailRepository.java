@@ -0,0 +1,10 @@
+package com.filesharing.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.filesharing.model.FileThumbnail;
+
+@Repository
+public interface FileThumbnailRepository extends JpaRepository<FileThumbnail, Long> {
+}
@@ -0,0 +1,51 @@
+package com.filesharing.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.TextEntity;
+
+import java.util.List;
+import java.util.Locale;
+
+// 主键由IDENTITY改为序列后，Hibernate新建的序列从1开始；在建表之后、接收请求之前把序列移到现有最大id之后
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 依赖EntityManagerFactory，保证Hibernate已完成建表和建序列
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        align("files", FileEntity.ID_SEQUENCE, FileEntity.ID_ALLOCATION_SIZE);
+        align("texts", TextEntity.ID_SEQUENCE, TextEntity.ID_ALLOCATION_SIZE);
+    }
+
+    // pooled优化器取得序列值v后使用 (v - allocationSize, v] 范围内的id
+    private void align(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        List<Long> next = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, sequence.toUpperCase(Locale.ROOT));
+        if (!next.isEmpty() && next.get(0) - allocationSize < maxId) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + allocationSize));
+            log.info("Moved sequence {} past existing id {}", sequence, maxId);
+        }
+    }
+}
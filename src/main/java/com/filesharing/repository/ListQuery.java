@@ -0,0 +1,75 @@
+package com.filesharing.repository;
+
+import com.filesharing.util.CursorUtil;
+
+// 列表查询条件，按 (create_time, id) 倒序进行键集分页
+public class ListQuery {
+    public static final int DEFAULT_LIMIT = 50;
+
+    public static final int MAX_LIMIT = 200;
+
+    private Long cursorTime;
+
+    private Long cursorId;
+
+    private int limit = DEFAULT_LIMIT;
+
+    private String type;
+
+    // 文件按文件名、文本按备注进行前缀匹配
+    private String namePrefix;
+
+    private Long from;
+
+    private Long to;
+
+    public static ListQuery of(String cursor, Integer limit, String type, String namePrefix, Long from, Long to) {
+        ListQuery query = new ListQuery();
+        if (cursor != null && !cursor.isEmpty()) {
+            long[] position = CursorUtil.decode(cursor);
+            query.cursorTime = position[0];
+            query.cursorId = position[1];
+        }
+        if (limit != null) {
+            query.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        }
+        query.type = type != null && !type.isEmpty() ? type : null;
+        query.namePrefix = namePrefix != null && !namePrefix.isEmpty() ? namePrefix : null;
+        query.from = from;
+        query.to = to;
+        return query;
+    }
+
+    // LIKE前缀匹配时转义通配符，转义字符为 !
+    static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    public Long getCursorTime() {
+        return cursorTime;
+    }
+
+    public Long getCursorId() {
+        return cursorId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+}
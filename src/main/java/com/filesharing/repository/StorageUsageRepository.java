@@ -0,0 +1,45 @@
+package com.filesharing.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filesharing.model.StorageUsage;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, String> {
+
+    // 检查和累加在同一条语句中完成，并发上传不会超出上限；limit不大于0表示不限制
+    @Transactional
+    @Modifying
+    @Query("update StorageUsage u set u.usedBytes = u.usedBytes + :bytes, u.fileCount = u.fileCount + :count, "
+            + "u.updateTime = :now where u.clientId = :clientId and (:limit <= 0 or u.usedBytes + :bytes <= :limit)")
+    int charge(@Param("clientId") String clientId, @Param("bytes") long bytes, @Param("count") long count,
+               @Param("limit") long limit, @Param("now") long now);
+
+    // 主键冲突说明并发插入了同一客户端的记录，由调用方改为累加
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (client_id, used_bytes, file_count, update_time) "
+            + "VALUES (:clientId, :bytes, :count, :now)", nativeQuery = true)
+    int insertFirstCharge(@Param("clientId") String clientId, @Param("bytes") long bytes, @Param("count") long count,
+                          @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("update StorageUsage u set u.usedBytes = u.usedBytes - :bytes, u.fileCount = u.fileCount - :count, "
+            + "u.updateTime = :now where u.clientId = :clientId")
+    int release(@Param("clientId") String clientId, @Param("bytes") long bytes, @Param("count") long count,
+                @Param("now") long now);
+
+    // 升级前上传的文件没有用量记录，启动时汇总一次作为总量的初始值
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (client_id, used_bytes, file_count, update_time) "
+            + "SELECT :clientId, COALESCE(SUM(f.file_size), 0), COUNT(*), :now FROM files f "
+            + "HAVING NOT EXISTS (SELECT 1 FROM storage_usage u WHERE u.client_id = :clientId)", nativeQuery = true)
+    int backfillTotal(@Param("clientId") String clientId, @Param("now") long now);
+}
@@ -1,10 +1,38 @@
 package com.filesharing.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.filesharing.model.TextEntity;
+import com.filesharing.model.TextHeader;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TextRepository extends JpaRepository<TextEntity, Long> {
+public interface TextRepository extends JpaRepository<TextEntity, Long>, TextRepositoryCustom {
+
+    // 只查询校验所需的列，不加载文本内容
+    @Query("select new com.filesharing.model.TextHeader(t.id, t.contentHash, t.createTime, t.password, t.expireTime, " +
+            "t.encoding, t.byteCount) " +
+            "from TextEntity t where t.id = :id")
+    Optional<TextHeader> findHeaderById(@Param("id") Long id);
+
+    // 升级前写入、尚未生成预览的文本
+    @Query("select t.id from TextEntity t where t.preview is null order by t.id")
+    List<Long> findIdsWithoutPreview(Pageable pageable);
+
+    // 按过期时间索引查找，不扫描整张表
+    @Query("select t.id from TextEntity t where t.expireTime <= :now order by t.expireTime")
+    List<Long> findExpiredIds(@Param("now") long now, Pageable pageable);
+
+    // 按id直接删除，不加载文本内容；返回删除的行数
+    @Modifying
+    @Query("delete from TextEntity t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.filesharing.repository;
+
+import com.filesharing.model.TextSummary;
+
+import java.util.List;
+
+public interface TextRepositoryCustom {
+
+    List<TextSummary> findSummaries(ListQuery query, int maxResults);
+}
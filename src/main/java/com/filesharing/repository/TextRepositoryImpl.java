@@ -0,0 +1,53 @@
+package com.filesharing.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import com.filesharing.model.TextSummary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TextRepositoryImpl implements TextRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 只查询预览等元数据列，不读取content和compressed_content
+    @Override
+    public List<TextSummary> findSummaries(ListQuery query, int maxResults) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.filesharing.model.TextSummary(t.id, t.preview, t.remark, t.createTime, "
+                        + "case when t.password is null then false else true end, t.byteCount, t.lineCount) "
+                        + "from TextEntity t where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        // 已过期但尚未被清理任务删除的记录不再列出
+        jpql.append(" and (t.expireTime is null or t.expireTime > :now)");
+        params.put("now", System.currentTimeMillis());
+        if (query.getCursorTime() != null) {
+            // 先用create_time范围条件定位索引起点，再排除同一时间戳中已返回的记录
+            jpql.append(" and t.createTime <= :cursorTime and (t.createTime < :cursorTime or t.id < :cursorId)");
+            params.put("cursorTime", query.getCursorTime());
+            params.put("cursorId", query.getCursorId());
+        }
+        if (query.getNamePrefix() != null) {
+            jpql.append(" and t.remark like :namePrefix escape '!'");
+            params.put("namePrefix", ListQuery.likePrefix(query.getNamePrefix()));
+        }
+        if (query.getFrom() != null) {
+            jpql.append(" and t.createTime >= :from");
+            params.put("from", query.getFrom());
+        }
+        if (query.getTo() != null) {
+            jpql.append(" and t.createTime < :to");
+            params.put("to", query.getTo());
+        }
+        jpql.append(" order by t.createTime desc, t.id desc");
+
+        TypedQuery<TextSummary> typedQuery = entityManager.createQuery(jpql.toString(), TextSummary.class);
+        params.forEach(typedQuery::setParameter);
+        return typedQuery.setMaxResults(maxResults).getResultList();
+    }
+}
@@ -0,0 +1,32 @@
+package com.filesharing.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filesharing.model.UploadSession;
+
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // 正在提交的会话可能长时间没有更新，不按过期处理
+    List<UploadSession> findByStatusNotAndUpdateTimeLessThan(String status, Long updateTime, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.updateTime = :now where s.id = :id")
+    int touch(@Param("id") String id, @Param("now") long now);
+
+    // 原子地切换会话状态，保证同一会话只会被提交一次；同时刷新更新时间，提交失败恢复的会话重新计算有效期
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.status = :to, s.updateTime = :now where s.id = :id and s.status = :from")
+    int changeStatus(@Param("id") String id, @Param("from") String from, @Param("to") String to,
+                     @Param("now") long now);
+}
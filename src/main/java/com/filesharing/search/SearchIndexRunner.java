@@ -0,0 +1,29 @@
+package com.filesharing.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// 启动时整理倒排索引表的索引；升级后首次启动时在后台为已有的文件和文本建立索引，不延迟启动
+@Component
+public class SearchIndexRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexRunner.class);
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchRebuildService searchRebuildService;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        searchIndexService.alignIndexes();
+        if (searchIndexService.needsInitialBuild() && searchRebuildService.start()) {
+            log.info("Building search index for existing files and texts");
+        }
+    }
+}
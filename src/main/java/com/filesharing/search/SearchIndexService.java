@@ -0,0 +1,285 @@
+package com.filesharing.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filesharing.config.SearchConfig;
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.SearchHit;
+import com.filesharing.model.SearchPosting;
+import com.filesharing.model.TextEntity;
+import com.filesharing.storage.CompressionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// 文件名、备注和文本内容的倒排索引，存放在search_postings表中，随上传和删除增量更新
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    // 并发重建和上传可能同时写入同一文档的词条
+    private static final String MERGE_POSTING =
+            "MERGE INTO search_postings (term, doc_type, doc_id) KEY (term, doc_type, doc_id) VALUES (?, ?, ?)";
+
+    private static final String DELETE_DOCUMENT = "DELETE FROM search_postings WHERE doc_id = ? AND doc_type = ?";
+
+    private static final String TERM_INDEX = "idx_search_postings_term";
+
+    private static final String FILE_COLUMNS =
+            "d.id, d.file_name, d.remark, NULL, d.create_time, d.password IS NOT NULL, d.file_size";
+
+    // 受密码保护的文本不返回预览
+    private static final String TEXT_COLUMNS =
+            "d.id, NULL, d.remark, CASE WHEN d.password IS NULL THEN d.preview END, d.create_time, "
+                    + "d.password IS NOT NULL, d.byte_count";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    @Autowired
+    private SearchConfig searchConfig;
+
+    public boolean isEnabled() {
+        return searchConfig.isEnabled();
+    }
+
+    // 同一次上传的文件一起写入，所有词条合并为一次批处理；索引失败不影响上传，重建索引时补上
+    public void indexFiles(List<FileEntity> files) {
+        Map<Long, Set<String>> documents = new LinkedHashMap<>();
+        for (FileEntity file : files) {
+            documents.put(file.getId(), Tokenizer.indexTerms(file.getFileName(), file.getRemark()));
+        }
+        index(SearchPosting.TYPE_FILE, documents);
+    }
+
+    // 受密码保护的文本content传null，只索引备注，避免通过搜索推测内容
+    public void indexText(Long id, String remark, String content) {
+        index(SearchPosting.TYPE_TEXT, Map.of(id, Tokenizer.indexTerms(remark, truncate(content))));
+    }
+
+    // contents与texts一一对应，为null时只索引备注
+    public void indexTexts(List<TextEntity> texts, List<String> contents) {
+        Map<Long, Set<String>> documents = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String content = contents != null ? truncate(contents.get(i)) : null;
+            documents.put(texts.get(i).getId(), Tokenizer.indexTerms(texts.get(i).getRemark(), content));
+        }
+        index(SearchPosting.TYPE_TEXT, documents);
+    }
+
+    // 在调用方的事务中删除，与文件或文本的删除一起提交
+    public void remove(String docType, Collection<Long> ids) {
+        if (!isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[] {id, docType});
+        }
+        jdbcTemplate.batchUpdate(DELETE_DOCUMENT, args);
+    }
+
+    // 所有词条都出现的文档按id倒序分页；第一个词条按 (term, doc_type, doc_id) 索引倒序扫描，
+    // 其余词条按主键逐个验证，取够一页即停止，耗时与总文档数无关
+    public Slice<SearchHit> search(String docType, String query, Long cursorId, int limit) {
+        if (!isEnabled()) {
+            throw new RuntimeException("Search is disabled");
+        }
+        List<String> terms = Tokenizer.queryTerms(query);
+        if (terms.isEmpty()) {
+            return new SliceImpl<>(List.of(), PageRequest.ofSize(limit), false);
+        }
+        boolean files = SearchPosting.TYPE_FILE.equals(docType);
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(files ? FILE_COLUMNS : TEXT_COLUMNS)
+                .append(" FROM search_postings p0");
+        List<Object> params = new ArrayList<>();
+        for (int i = 1; i < terms.size(); i++) {
+            sql.append(" JOIN search_postings p").append(i).append(" ON p").append(i).append(".term = ? AND p")
+                    .append(i).append(".doc_type = p0.doc_type AND p").append(i).append(".doc_id = p0.doc_id");
+            params.add(terms.get(i));
+        }
+        sql.append(" JOIN ").append(files ? "files" : "texts").append(" d ON d.id = p0.doc_id")
+                .append(" WHERE p0.term = ? AND p0.doc_type = ?");
+        params.add(terms.get(0));
+        params.add(docType);
+        if (cursorId != null) {
+            sql.append(" AND p0.doc_id < ?");
+            params.add(cursorId);
+        }
+        // 已过期但尚未被清理任务删除的记录不返回
+        sql.append(" AND (d.expire_time IS NULL OR d.expire_time > ?)");
+        params.add(System.currentTimeMillis());
+        sql.append(" ORDER BY p0.doc_id DESC LIMIT ?");
+        params.add(limit + 1);
+
+        List<SearchHit> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SearchHit(
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                rs.getObject(5, Long.class), rs.getBoolean(6), rs.getObject(7, Long.class)),
+                params.toArray());
+        boolean hasNext = hits.size() > limit;
+        if (hasNext) {
+            hits = hits.subList(0, limit);
+        }
+        return new SliceImpl<>(hits, PageRequest.ofSize(limit), hasNext);
+    }
+
+    // 重新索引id大于afterId的一批文件，返回处理的id
+    @Transactional
+    public List<Long> reindexFiles(long afterId, int batchSize) {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT id, file_name, remark FROM files WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getString(2), rs.getString(3)},
+                afterId, batchSize);
+        Map<Long, Set<String>> documents = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            documents.put((Long) row[0], Tokenizer.indexTerms((String) row[1], (String) row[2]));
+        }
+        index(SearchPosting.TYPE_FILE, documents);
+        return new ArrayList<>(documents.keySet());
+    }
+
+    // 文本内容只读取需要索引的前缀，压缩存储的文本边读边解压
+    @Transactional
+    public List<Long> reindexTexts(long afterId, int batchSize) {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, remark, password IS NOT NULL, encoding, content, compressed_content "
+                        + "FROM texts WHERE id > ? ORDER BY id LIMIT ?",
+                (RowCallbackHandler) rs -> {
+                    String content = null;
+                    if (!rs.getBoolean(3)) {
+                        try {
+                            InputStream compressed = rs.getString(4) != null ? rs.getBinaryStream(6) : null;
+                            if (compressed != null) {
+                                content = readIndexedContent(compressionService.decompress(compressed));
+                            } else {
+                                try (Reader reader = rs.getCharacterStream(5)) {
+                                    content = reader != null ? read(reader) : null;
+                                }
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    rows.add(new Object[] {rs.getLong(1), rs.getString(2), content});
+                },
+                afterId, batchSize);
+        Map<Long, Set<String>> documents = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            documents.put((Long) row[0], Tokenizer.indexTerms((String) row[1], (String) row[2]));
+        }
+        index(SearchPosting.TYPE_TEXT, documents);
+        return new ArrayList<>(documents.keySet());
+    }
+
+    // 重建期间被删除的文档可能又被写入词条，重建结束后清理
+    @Transactional
+    public int removeOrphans() {
+        return jdbcTemplate.update("DELETE FROM search_postings p WHERE p.doc_type = ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM files f WHERE f.id = p.doc_id)", SearchPosting.TYPE_FILE)
+                + jdbcTemplate.update("DELETE FROM search_postings p WHERE p.doc_type = ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM texts t WHERE t.id = p.doc_id)", SearchPosting.TYPE_TEXT);
+    }
+
+    // 索引为空但已有文件或文本，说明是升级前的数据，需要首次建立索引
+    public boolean needsInitialBuild() {
+        return isEnabled()
+                && jdbcTemplate.queryForList("SELECT doc_id FROM search_postings LIMIT 1", Long.class).isEmpty()
+                && !jdbcTemplate.queryForList("SELECT id FROM files UNION ALL SELECT id FROM texts LIMIT 1",
+                        Long.class).isEmpty();
+    }
+
+    // 词条查找由主键 (term, doc_type, doc_id) 完成，不再单独建立同列的索引，否则每条记录要写两次；
+    // 删除旧版本建立的该索引。Hibernate建表时主键列的顺序不是term开头时，改为建立词条索引
+    public void alignIndexes() {
+        List<String> primaryKey = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            Map<Short, String> columns = new TreeMap<>();
+            try (ResultSet rs = connection.getMetaData().getPrimaryKeys(null, null, "SEARCH_POSTINGS")) {
+                while (rs.next()) {
+                    columns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME").toUpperCase(Locale.ROOT));
+                }
+            }
+            return new ArrayList<>(columns.values());
+        });
+        if (primaryKey.isEmpty() || primaryKey.get(0).equals("TERM")) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + TERM_INDEX);
+        } else {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + TERM_INDEX + " ON search_postings (term, doc_type, doc_id)");
+            log.info("Search postings primary key is {}, created {}", primaryKey, TERM_INDEX);
+        }
+    }
+
+    // 从UTF-8字节流读取需要索引的前缀，不读取完整内容
+    public String readIndexedContent(InputStream in) throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    private String read(Reader reader) throws IOException {
+        char[] buffer = new char[searchConfig.getMaxIndexedChars()];
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+        }
+        return new String(buffer, 0, length);
+    }
+
+    private String truncate(String content) {
+        if (content == null || content.length() <= searchConfig.getMaxIndexedChars()) {
+            return content;
+        }
+        return content.substring(0, searchConfig.getMaxIndexedChars());
+    }
+
+    // 先删除文档原有的词条再写入，不在事务中时每条语句单独提交，中途失败只会缺少部分词条
+    private void index(String docType, Map<Long, Set<String>> documents) {
+        if (!isEnabled() || documents.isEmpty()) {
+            return;
+        }
+        List<Object[]> deletes = new ArrayList<>(documents.size());
+        List<Object[]> postings = new ArrayList<>();
+        documents.forEach((id, terms) -> {
+            deletes.add(new Object[] {id, docType});
+            for (String term : terms) {
+                postings.add(new Object[] {term, docType, id});
+            }
+        });
+        try {
+            jdbcTemplate.batchUpdate(DELETE_DOCUMENT, deletes);
+            jdbcTemplate.batchUpdate(MERGE_POSTING, postings);
+        } catch (DataAccessException e) {
+            log.warn("Could not index {} documents of type {}: {}", documents.size(), docType, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.filesharing.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.config.SearchConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 在后台线程中分批重建索引，每批使用独立事务；重建期间原有索引仍可查询，新上传的内容照常增量索引
+@Service
+public class SearchRebuildService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchRebuildService.class);
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchConfig searchConfig;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong indexedFiles = new AtomicLong();
+
+    private final AtomicLong indexedTexts = new AtomicLong();
+
+    private volatile Long startTime;
+
+    private volatile Long finishTime;
+
+    private volatile String error;
+
+    // 已有重建在进行时返回false
+    public boolean start() {
+        if (!searchIndexService.isEnabled()) {
+            throw new RuntimeException("Search is disabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        indexedFiles.set(0);
+        indexedTexts.set(0);
+        startTime = System.currentTimeMillis();
+        finishTime = null;
+        error = null;
+        Thread.ofVirtual().name("search-rebuild").start(this::rebuild);
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", searchIndexService.isEnabled());
+        status.put("running", running.get());
+        status.put("indexedFiles", indexedFiles.get());
+        status.put("indexedTexts", indexedTexts.get());
+        status.put("startTime", startTime);
+        status.put("finishTime", finishTime);
+        status.put("error", error);
+        return status;
+    }
+
+    private void rebuild() {
+        try {
+            int batchSize = searchConfig.getRebuildBatchSize();
+            long cursor = 0;
+            List<Long> ids;
+            do {
+                ids = searchIndexService.reindexFiles(cursor, batchSize);
+                if (!ids.isEmpty()) {
+                    cursor = ids.get(ids.size() - 1);
+                    indexedFiles.addAndGet(ids.size());
+                }
+            } while (ids.size() == batchSize);
+            cursor = 0;
+            do {
+                ids = searchIndexService.reindexTexts(cursor, batchSize);
+                if (!ids.isEmpty()) {
+                    cursor = ids.get(ids.size() - 1);
+                    indexedTexts.addAndGet(ids.size());
+                }
+            } while (ids.size() == batchSize);
+            int orphans = searchIndexService.removeOrphans();
+            log.info("Rebuilt search index for {} files and {} texts, removed {} stale postings",
+                    indexedFiles.get(), indexedTexts.get(), orphans);
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.warn("Could not rebuild search index: {}", e.getMessage());
+        } finally {
+            finishTime = System.currentTimeMillis();
+            running.set(false);
+        }
+    }
+}
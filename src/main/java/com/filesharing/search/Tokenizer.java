@@ -0,0 +1,97 @@
+package com.filesharing.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// 分词：字母数字按词切分，中日韩文字没有空格分隔，按单字和相邻两字切分
+public class Tokenizer {
+
+    public static final int MAX_TERM_LENGTH = 32;
+
+    // 查询最多使用的词条数，每个词条对应一次索引连接
+    public static final int MAX_QUERY_TERMS = 8;
+
+    // 索引时同时写入单字和两字词条，单字查询也能命中
+    public static Set<String> indexTerms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                tokenize(text, terms, true);
+            }
+        }
+        return terms;
+    }
+
+    // 查询时连续两个以上的汉字只使用两字词条，比单字更有区分度；
+    // 较长的词条通常更少见，排在前面作为驱动表
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query != null) {
+            tokenize(query, terms, false);
+        }
+        List<String> sorted = new ArrayList<>(terms);
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        return sorted.size() > MAX_QUERY_TERMS ? sorted.subList(0, MAX_QUERY_TERMS) : sorted;
+    }
+
+    private static void tokenize(String text, Set<String> terms, boolean index) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        List<String> cjk = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                addWord(word, terms);
+                cjk.add(new String(Character.toChars(codePoint)));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                addCjk(cjk, terms, index);
+                word.appendCodePoint(codePoint);
+            } else {
+                addWord(word, terms);
+                addCjk(cjk, terms, index);
+            }
+        }
+        addWord(word, terms);
+        addCjk(cjk, terms, index);
+    }
+
+    private static void addWord(StringBuilder word, Set<String> terms) {
+        if (word.length() > 0) {
+            // 超长的词截断后索引，查询按同样规则截断
+            int end = Math.min(word.length(), MAX_TERM_LENGTH);
+            if (end < word.length() && Character.isHighSurrogate(word.charAt(end - 1))) {
+                end--;
+            }
+            terms.add(word.substring(0, end));
+            word.setLength(0);
+        }
+    }
+
+    private static void addCjk(List<String> chars, Set<String> terms, boolean index) {
+        if (chars.isEmpty()) {
+            return;
+        }
+        if (index || chars.size() == 1) {
+            terms.addAll(chars);
+        }
+        for (int i = 0; i + 1 < chars.size(); i++) {
+            terms.add(chars.get(i) + chars.get(i + 1));
+        }
+        chars.clear();
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,45 @@
+package com.filesharing.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.config.ExpiryConfig;
+
+// 定期删除已过期或下载次数已用完的文件和文本，每批使用独立事务，避免长时间锁表
+@Service
+public class ExpiryPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiryPurgeService.class);
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private TextService textService;
+
+    @Autowired
+    private ExpiryConfig expiryConfig;
+
+    @Scheduled(fixedDelayString = "${app.expiry.purge-interval:PT1M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int batchSize = expiryConfig.getPurgeBatchSize();
+        int files = 0;
+        int batch;
+        do {
+            batch = fileService.purgeExpiredFiles(now, batchSize);
+            files += batch;
+        } while (batch == batchSize);
+        int texts = 0;
+        do {
+            batch = textService.purgeExpiredTexts(now, batchSize);
+            texts += batch;
+        } while (batch == batchSize);
+        if (files > 0 || texts > 0) {
+            log.info("Purged {} expired files and {} expired texts", files, texts);
+        }
+    }
+}
@@ -1,16 +1,56 @@
 package com.filesharing.service;
 
+import io.micrometer.core.instrument.LongTaskTimer;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.filesharing.metrics.TransferMetrics;
 import com.filesharing.model.FileEntity;
+import com.filesharing.model.FileSummary;
+import com.filesharing.model.FileThumbnail;
+import com.filesharing.model.SearchPosting;
+import com.filesharing.processing.FileProcessingService;
+import com.filesharing.repository.BlobRecordRepository;
 import com.filesharing.repository.FileRepository;
+import com.filesharing.repository.FileThumbnailRepository;
+import com.filesharing.repository.ListQuery;
+import com.filesharing.search.SearchIndexService;
+import com.filesharing.storage.BlobReferenceService;
+import com.filesharing.storage.BlobStore;
+import com.filesharing.storage.CompressionService;
+import com.filesharing.storage.StoredBlob;
+import com.filesharing.util.ExpiryUtil;
+import com.filesharing.util.MeteredInputStream;
 import com.filesharing.util.PasswordUtil;
+import com.filesharing.util.StreamUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 @Service
 public class FileService {
@@ -18,10 +58,167 @@ public class FileService {
     @Autowired
     private FileRepository fileRepository;
 
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private BlobRecordRepository blobRecordRepository;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    @Autowired
+    private HotFileCache hotFileCache;
+
+    @Autowired
+    private TransferMetrics transferMetrics;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private FileProcessingService fileProcessingService;
+
+    @Autowired
+    private FileThumbnailRepository fileThumbnailRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     public FileEntity storeFile(MultipartFile file, String remark, String password) throws IOException {
+        return storeFile(file, remark, password, null, null, null);
+    }
+
+    // expireTime为过期时间戳，maxDownloads为允许的下载次数，均为空表示不限制；clientId用于统计客户端的存储配额
+    public FileEntity storeFile(MultipartFile file, String remark, String password,
+                                Long expireTime, Integer maxDownloads, String clientId) throws IOException {
         String fileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String contentType = file.getContentType();
-        
+        String contentType = resolveContentType(fileName, file.getContentType());
+        String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+        try (InputStream in = file.getInputStream()) {
+            return storeStream(fileName, contentType, in, remark, encryptedPassword, expireTime, maxDownloads, clientId);
+        }
+    }
+
+    // 以流的方式按块写入BlobStore，数据库中只保存元数据和存储键
+    public FileEntity storeStream(String fileName, String contentType, InputStream in,
+                                  String remark, String encryptedPassword,
+                                  Long expireTime, Integer maxDownloads, String clientId) throws IOException {
+        MeteredInputStream source = new MeteredInputStream(in);
+        LongTaskTimer.Sample active = transferMetrics.startUpload();
+        boolean success = false;
+        try {
+            FileEntity fileEntity = writeBlob(fileName, contentType, source, remark, encryptedPassword,
+                    expireTime, maxDownloads, clientId);
+            FileEntity saved = save(List.of(fileEntity), clientId).get(0);
+            success = true;
+            return saved;
+        } finally {
+            transferMetrics.recordUpload(active, source.getCount(), success);
+        }
+    }
+
+    // 批量上传：内容逐个写入BlobStore，配额按总大小占用一次，元数据在一个事务中批量插入；任一文件失败时整批不保存
+    public List<FileEntity> storeFiles(List<MultipartFile> files, String remark, String password,
+                                       Long expireTime, Integer maxDownloads, String clientId) throws IOException {
+        // 同一批文件使用相同的密码，只加密一次
+        String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+        List<FileEntity> entities = new ArrayList<>(files.size());
+        List<MeteredInputStream> sources = new ArrayList<>(files.size());
+        List<LongTaskTimer.Sample> samples = new ArrayList<>(files.size());
+        boolean success = false;
+        try {
+            try {
+                for (MultipartFile file : files) {
+                    String fileName = StringUtils.cleanPath(file.getOriginalFilename());
+                    String contentType = resolveContentType(fileName, file.getContentType());
+                    try (MeteredInputStream source = new MeteredInputStream(file.getInputStream())) {
+                        sources.add(source);
+                        samples.add(transferMetrics.startUpload());
+                        entities.add(writeBlob(fileName, contentType, source, remark, encryptedPassword,
+                                expireTime, maxDownloads, clientId));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                releaseBlobs(entities);
+                throw e;
+            }
+            List<FileEntity> saved = save(entities, clientId);
+            success = true;
+            return saved;
+        } finally {
+            for (int i = 0; i < samples.size(); i++) {
+                transferMetrics.recordUpload(samples.get(i), sources.get(i).getCount(), success);
+            }
+        }
+    }
+
+    // 写入内容并增加引用计数，返回尚未保存的实体
+    private FileEntity writeBlob(String fileName, String contentType, MeteredInputStream source,
+                                 String remark, String encryptedPassword,
+                                 Long expireTime, Integer maxDownloads, String clientId) throws IOException {
+        // 可压缩的类型边读边压缩后再写入，已压缩的格式原样存储
+        boolean compress = compressionService.shouldCompress(fileName, contentType);
+        // 同时计算原始内容的CRC-32，打包下载时不需要再读一遍
+        CheckedInputStream checked = new CheckedInputStream(source, new CRC32());
+        StoredBlob blob;
+        try (InputStream stored = compress ? compressionService.compress(checked) : checked) {
+            // 写入时计算SHA-256，相同内容只存储一份并增加引用计数
+            blob = blobReferenceService.store(stored);
+        }
+        FileEntity fileEntity = new FileEntity(fileName, contentType, blob.getKey(), source.getCount(), remark, encryptedPassword);
+        fileEntity.setStoredSize(blob.getSize());
+        fileEntity.setEncoding(compress ? CompressionService.DEFLATE : null);
+        fileEntity.setCrc32(checked.getChecksum().getValue());
+        fileEntity.setExpireTime(expireTime);
+        fileEntity.setMaxDownloads(maxDownloads);
+        fileEntity.setClientId(clientId);
+        fileEntity.setProcessingStatus(fileProcessingService.isEnabled() ? FileEntity.PROCESSING_PENDING : null);
+        return fileEntity;
+    }
+
+    // 按原始大小占用配额后保存元数据，失败时释放配额和已写入的内容
+    private List<FileEntity> save(List<FileEntity> files, String clientId) {
+        long bytes = 0;
+        for (FileEntity file : files) {
+            bytes += file.getFileSize();
+        }
+        try {
+            quotaService.charge(clientId, bytes, files.size());
+        } catch (RuntimeException e) {
+            releaseBlobs(files);
+            throw e;
+        }
+        List<FileEntity> saved;
+        try {
+            // 多个文件在一个事务中插入，主键由序列分配，Hibernate按hibernate.jdbc.batch_size分批发送
+            saved = files.size() == 1 ? List.of(fileRepository.save(files.get(0))) : fileRepository.saveAll(files);
+        } catch (RuntimeException e) {
+            quotaService.release(clientId, bytes, files.size());
+            releaseBlobs(files);
+            throw e;
+        }
+        searchIndexService.indexFiles(saved);
+        // 类型识别、哈希和缩略图在后台处理，不延迟上传响应
+        for (FileEntity file : saved) {
+            fileProcessingService.submit(file.getId());
+        }
+        return saved;
+    }
+
+    private void releaseBlobs(List<FileEntity> files) {
+        for (FileEntity file : files) {
+            blobReferenceService.release(file.getStorageKey());
+        }
+    }
+
+    public String resolveContentType(String fileName, String contentType) {
         // 如果ContentType为空，根据文件扩展名判断
         if (contentType == null || contentType.isEmpty()) {
             // 检查文件是否有后缀名
@@ -60,15 +257,11 @@ public class FileService {
                 fileName = fileName;
             }
         }
-
-        String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
-        FileEntity fileEntity = new FileEntity(fileName, contentType, file.getBytes(), remark, encryptedPassword);
-        return fileRepository.save(fileEntity);
+        return contentType;
     }
 
     public FileEntity getFile(Long fileId) {
-        FileEntity file = fileRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found with id " + fileId));
+        FileEntity file = loadFile(fileId);
         if (file.getPassword() != null) {
             file.setFileName("*****");
         }
@@ -76,8 +269,7 @@ public class FileService {
     }
 
     public FileEntity getFileWithPassword(Long fileId, String password) {
-        FileEntity file = fileRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found with id " + fileId));
+        FileEntity file = loadFile(fileId);
         if (file.getPassword() != null) {
             if (!PasswordUtil.verifyPassword(password, file.getPassword())) {
                 throw new RuntimeException("Invalid password");
@@ -86,20 +278,250 @@ public class FileService {
         return file;
     }
 
-    public List<FileEntity> getAllFiles() {
-        return fileRepository.findAll(org.springframework.data.domain.Sort.by(
-            org.springframework.data.domain.Sort.Direction.DESC, "createTime"));
+    // 热点文件的元数据从缓存读取，不再每次查询数据库
+    private FileEntity loadFile(Long fileId) {
+        FileEntity file = hotFileCache.get(fileId);
+        if (file == null) {
+            long stamp = hotFileCache.stamp();
+            file = fileRepository.findById(fileId)
+                    .orElseThrow(() -> new RuntimeException("File not found with id " + fileId));
+            hotFileCache.put(file, stamp);
+        }
+        // 已过期但尚未被清理任务删除的文件按不存在处理
+        if (ExpiryUtil.isExpired(file.getExpireTime())) {
+            throw new RuntimeException("File not found with id " + fileId);
+        }
+        return file;
     }
 
+    // 限制了下载次数的文件在输出内容前占用一次下载，次数用完时与过期一样处理
+    public void consumeDownload(FileEntity file) {
+        if (file.getMaxDownloads() == null) {
+            return;
+        }
+        int updated = fileRepository.consumeDownload(file.getId(), System.currentTimeMillis());
+        // 缓存中的下载次数和过期时间已经变化
+        hotFileCache.invalidate(file.getId());
+        if (updated == 0) {
+            throw new RuntimeException("File not found with id " + file.getId());
+        }
+    }
+
+    public long getContentLength(FileEntity file) {
+        if (file.getFileSize() != null) {
+            return file.getFileSize();
+        }
+        try {
+            if (file.getStorageKey() != null) {
+                return blobStore.size(file.getStorageKey());
+            }
+            return file.getData() != null ? file.getData().length() : 0;
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Could not read file size: " + e.getMessage(), e);
+        }
+    }
+
+    // 只有原样存储的文件可以零拷贝发送，压缩存储的文件需要边读边解压
+    public Path getLocalPath(FileEntity file) {
+        if (file.getStorageKey() == null || file.getEncoding() != null) {
+            return null;
+        }
+        return blobStore.localPath(file.getStorageKey());
+    }
+
+    // 压缩存储的文件在存储中实际占用的字节数
+    public long getStoredLength(FileEntity file) {
+        if (file.getStoredSize() != null) {
+            return file.getStoredSize();
+        }
+        try {
+            return blobStore.size(file.getStorageKey());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file size: " + e.getMessage(), e);
+        }
+    }
+
+    // 存储文件的本地路径，不区分是否压缩，用于原样发送存储的字节
+    public Path getStoredPath(FileEntity file) {
+        return file.getStorageKey() != null ? blobStore.localPath(file.getStorageKey()) : null;
+    }
+
+    // 不解压，原样输出存储的字节，客户端接受存储时的编码时使用
+    public long writeStoredContent(FileEntity file, OutputStream out) throws IOException {
+        Path localPath = blobStore.localPath(file.getStorageKey());
+        if (localPath != null) {
+            try (FileChannel channel = FileChannel.open(localPath, StandardOpenOption.READ)) {
+                return StreamUtil.transfer(channel, 0, channel.size(), out);
+            }
+        }
+        try (InputStream in = blobStore.open(file.getStorageKey())) {
+            return StreamUtil.copy(in, out);
+        }
+    }
+
+    // 输出文件内容的指定区间 [start, start + count)，不在事务中执行，慢速客户端下载期间不占用数据库连接
+    public long writeContent(FileEntity file, long start, long count, OutputStream out) throws IOException {
+        // 需要解压或从数据库读取的小文件缓存解码后的内容，原样存储的文件由sendfile发送，依赖系统页缓存
+        ByteBuffer cached = hotFileCache.getContent(file.getId());
+        if (cached == null && getLocalPath(file) == null && hotFileCache.isContentCacheable(getContentLength(file))) {
+            long stamp = hotFileCache.stamp();
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) getContentLength(file));
+            readContent(file, 0, getContentLength(file), content);
+            cached = hotFileCache.putContent(file.getId(), content.toByteArray(), stamp);
+        }
+        if (cached != null) {
+            return StreamUtil.write(cached.slice((int) start, (int) count), out);
+        }
+        return readContent(file, start, count, out);
+    }
+
+    private long readContent(FileEntity file, long start, long count, OutputStream out) throws IOException {
+        if (file.getStorageKey() != null && file.getEncoding() != null) {
+            try (InputStream in = compressionService.decompress(blobStore.open(file.getStorageKey()))) {
+                in.skipNBytes(start);
+                return StreamUtil.copy(in, out, count);
+            }
+        }
+        if (file.getStorageKey() != null) {
+            Path localPath = blobStore.localPath(file.getStorageKey());
+            if (localPath != null) {
+                try (FileChannel channel = FileChannel.open(localPath, StandardOpenOption.READ)) {
+                    return StreamUtil.transfer(channel, start, count, out);
+                }
+            }
+            try (InputStream in = blobStore.open(file.getStorageKey())) {
+                in.skipNBytes(start);
+                return StreamUtil.copy(in, out, count);
+            }
+        }
+        // 尚未迁移的旧数据仍从数据库读取，只有这一分支需要在事务中重新加载LOB并输出
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            return transaction.execute(status -> {
+                FileEntity legacy = fileRepository.findById(file.getId())
+                        .orElseThrow(() -> new RuntimeException("File not found with id " + file.getId()));
+                try (InputStream in = legacy.getData().getBinaryStream(start + 1, count)) {
+                    return StreamUtil.copy(in, out);
+                } catch (SQLException e) {
+                    throw new UncheckedIOException(new IOException("Could not read file content: " + e.getMessage(), e));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public FileThumbnail getThumbnail(FileEntity file) {
+        if (!Boolean.TRUE.equals(file.getHasThumbnail())) {
+            throw new RuntimeException("Thumbnail not found for file " + file.getId());
+        }
+        return fileThumbnailRepository.findById(file.getId())
+                .orElseThrow(() -> new RuntimeException("Thumbnail not found for file " + file.getId()));
+    }
+
+    // 键集分页，只查询元数据列，不加载文件内容
+    public Slice<FileSummary> getFiles(ListQuery query) {
+        List<FileSummary> files = fileRepository.findSummaries(query, query.getLimit() + 1);
+        boolean hasNext = files.size() > query.getLimit();
+        if (hasNext) {
+            files = files.subList(0, query.getLimit());
+        }
+        return new SliceImpl<>(files, PageRequest.ofSize(query.getLimit()), hasNext);
+    }
+
+    @Transactional
     public void deleteFile(Long fileId) {
-        FileEntity file = fileRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found with id " + fileId));
-        fileRepository.delete(file);
+        if (deleteFiles(List.of(fileId)) == 0) {
+            throw new RuntimeException("File not found with id " + fileId);
+        }
+    }
+
+    // 按id批量删除，只查询释放配额和存储所需的列，不加载实体；不存在的id被忽略，返回删除的数量
+    @Transactional
+    public int deleteFiles(Collection<Long> fileIds) {
+        if (fileIds.isEmpty()) {
+            return 0;
+        }
+        return deleteRows(fileRepository.findDeleteInfo(fileIds));
+    }
+
+    // 删除一批已过期的文件，返回删除的数量；按过期时间索引查找，不加载实体
+    @Transactional
+    public int purgeExpiredFiles(long now, int batchSize) {
+        return deleteRows(fileRepository.findExpired(now, PageRequest.ofSize(batchSize)));
+    }
+
+    // rows为 (id, storageKey, clientId, fileSize)
+    private int deleteRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        fileRepository.deleteAllByIdInBatch(ids);
+        fileThumbnailRepository.deleteAllByIdInBatch(ids);
+        searchIndexService.remove(SearchPosting.TYPE_FILE, ids);
+        // 同一客户端的配额合并释放，字节数和文件数分别累加
+        Map<String, Long> releasedBytes = new HashMap<>();
+        Map<String, Integer> releasedFiles = new HashMap<>();
+        for (Object[] row : rows) {
+            hotFileCache.invalidateAfterCommit((Long) row[0]);
+            releasedBytes.merge((String) row[2], row[3] != null ? (Long) row[3] : 0, Long::sum);
+            releasedFiles.merge((String) row[2], 1, Integer::sum);
+            // 内容按哈希去重，最后一个引用释放后才由后台任务删除存储文件
+            if (row[1] != null) {
+                blobReferenceService.release((String) row[1]);
+            }
+        }
+        releasedBytes.forEach((clientId, bytes) -> quotaService.release(clientId, bytes, releasedFiles.get(clientId)));
+        return rows.size();
+    }
+
+    // 逻辑字节数为所有文件大小之和，物理字节数为去重后实际存储的大小
+    // 存储对象的大小是压缩后的字节数，去重率按每个文件压缩后的大小计算，压缩率单独给出
+    public Map<String, Object> getDedupStats() {
+        long logicalBytes = fileRepository.sumStoredFileSize();
+        long storedBytes = fileRepository.sumStoredBlobSize();
+        long physicalBytes = blobRecordRepository.sumReferencedBytes();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("fileCount", fileRepository.countByStorageKeyIsNotNull());
+        stats.put("blobCount", blobRecordRepository.countByRefCountGreaterThan(0));
+        stats.put("logicalBytes", logicalBytes);
+        stats.put("storedBytes", storedBytes);
+        stats.put("physicalBytes", physicalBytes);
+        stats.put("dedupRatio", physicalBytes > 0 ? (double) storedBytes / physicalBytes : 1.0);
+        stats.put("compressionRatio", storedBytes > 0 ? (double) logicalBytes / storedBytes : 1.0);
+        return stats;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return hotFileCache.getStats();
+    }
+
+    // 压缩率来自数据库中的文件大小，CPU耗时为本次启动以来的累计值
+    public Map<String, Object> getCompressionStats() {
+        long originalBytes = fileRepository.sumCompressedOriginalSize();
+        long storedBytes = fileRepository.sumCompressedStoredSize();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("compressedFiles", fileRepository.countByEncodingIsNotNull());
+        stats.put("originalBytes", originalBytes);
+        stats.put("storedBytes", storedBytes);
+        stats.put("ratio", storedBytes > 0 ? (double) originalBytes / storedBytes : 1.0);
+        stats.put("compressCpuMillis", compressionService.getCompressNanos() / 1_000_000);
+        stats.put("decompressCpuMillis", compressionService.getDecompressNanos() / 1_000_000);
+        stats.put("compressedSinceStartup", compressionService.getOriginalBytes());
+        stats.put("compressedSinceStartupStored", compressionService.getCompressedBytes());
+        return stats;
     }
 
-    public FileEntity storeText(String fileName, byte[] content) {
+    public FileEntity storeText(String fileName, byte[] content, String clientId) throws IOException {
         // 对于文本内容，使用application/octet-stream类型，避免浏览器自动添加.txt后缀
-        FileEntity fileEntity = new FileEntity(fileName, "application/octet-stream", content, null, null);
-        return fileRepository.save(fileEntity);
+        return storeStream(fileName, "application/octet-stream", new ByteArrayInputStream(content), null, null,
+                null, null, clientId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.filesharing.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.filesharing.config.CacheConfig;
+import com.filesharing.model.FileEntity;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 热点文件缓存，按字节数限制总大小，超出时淘汰最久未访问的条目
+@Component
+public class HotFileCache {
+
+    // 每个条目除文件内容外的估算开销（实体字段、字符串、链表节点）
+    private static final long ENTRY_OVERHEAD = 512;
+
+    @Autowired
+    private CacheConfig cacheConfig;
+
+    // accessOrder=true，迭代顺序即LRU顺序
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 虚拟线程下使用ReentrantLock，避免synchronized固定载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 每次失效递增，加载前记录的值已变化时放弃写入，避免删除后写回旧数据
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private long weight;
+
+    private long contentBytes;
+
+    public long stamp() {
+        return generation.get();
+    }
+
+    // 返回缓存实体的副本，调用方可以修改返回值
+    public FileEntity get(Long id) {
+        if (!cacheConfig.isEnabled()) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.file.copyMetadata();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(FileEntity file, long stamp) {
+        if (!cacheConfig.isEnabled() || file.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(file.copyMetadata());
+        lock.lock();
+        try {
+            if (generation.get() != stamp) {
+                return;
+            }
+            Entry previous = entries.put(file.getId(), entry);
+            if (previous != null) {
+                remove(previous);
+            }
+            weight += entry.weight();
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 返回只读视图，多个下载可以同时读取同一份内容
+    public ByteBuffer getContent(Long id) {
+        if (!cacheConfig.isEnabled()) {
+            return null;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            return entry != null && entry.content != null ? entry.content.asReadOnlyBuffer() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isContentCacheable(long size) {
+        return cacheConfig.isEnabled() && size <= Math.min(cacheConfig.getMaxEntrySize(), Integer.MAX_VALUE - 8);
+    }
+
+    // 内容挂在已缓存的元数据条目上，条目不存在或已失效时不缓存
+    public ByteBuffer putContent(Long id, byte[] content, long stamp) {
+        ByteBuffer buffer;
+        if (cacheConfig.isOffHeap()) {
+            buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content).flip();
+        } else {
+            buffer = ByteBuffer.wrap(content);
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(id);
+            if (entry == null || generation.get() != stamp || !isContentCacheable(content.length)) {
+                return buffer.asReadOnlyBuffer();
+            }
+            if (entry.content == null) {
+                entry.content = buffer;
+                weight += content.length;
+                contentBytes += content.length;
+                evict();
+            }
+            return buffer.asReadOnlyBuffer();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                remove(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 在事务提交后失效，避免其他请求在提交前读到旧数据并重新写入缓存
+    public void invalidateAfterCommit(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.lock();
+        try {
+            stats.put("entries", entries.size());
+            stats.put("bytes", weight);
+            stats.put("contentBytes", contentBytes);
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        stats.put("evictions", evictions.get());
+        stats.put("maxBytes", cacheConfig.getMaxSize());
+        stats.put("offHeap", cacheConfig.isOffHeap());
+        return stats;
+    }
+
+    // 调用方持有锁
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > cacheConfig.getMaxSize() && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            remove(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Entry entry) {
+        weight -= entry.weight();
+        if (entry.content != null) {
+            contentBytes -= entry.content.capacity();
+        }
+    }
+
+    private static class Entry {
+        private final FileEntity file;
+
+        private ByteBuffer content;
+
+        Entry(FileEntity file) {
+            this.file = file;
+        }
+
+        long weight() {
+            long names = (file.getFileName() != null ? file.getFileName().length() : 0)
+                    + (file.getRemark() != null ? file.getRemark().length() : 0);
+            return ENTRY_OVERHEAD + names * 2 + (content != null ? content.capacity() : 0);
+        }
+    }
+}
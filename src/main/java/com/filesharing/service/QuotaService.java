@@ -0,0 +1,135 @@
+package com.filesharing.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.filesharing.config.QuotaConfig;
+import com.filesharing.exception.QuotaExceededException;
+import com.filesharing.model.StorageUsage;
+import com.filesharing.repository.StorageUsageRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 存储配额，用量按客户端在上传和删除时增量维护，查询只读取一行记录
+@Service
+public class QuotaService {
+
+    public static final String TOTAL = "*";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    @Autowired
+    private StorageUsageRepository storageUsageRepository;
+
+    @Autowired
+    private QuotaConfig quotaConfig;
+
+    public String resolveClientId(HttpServletRequest request) {
+        String clientId = null;
+        if (StringUtils.hasText(quotaConfig.getClientHeader())) {
+            String header = request.getHeader(quotaConfig.getClientHeader());
+            // X-Forwarded-For中第一个地址是原始客户端
+            if (header != null) {
+                clientId = header.split(",")[0].trim();
+            }
+        }
+        if (!StringUtils.hasText(clientId)) {
+            clientId = request.getRemoteAddr();
+        }
+        return clientId.length() > MAX_CLIENT_ID_LENGTH ? clientId.substring(0, MAX_CLIENT_ID_LENGTH) : clientId;
+    }
+
+    // 接收内容之前按声明的大小预先检查，不占用配额
+    public void checkAvailable(String clientId, long bytes) {
+        if (!quotaConfig.isEnabled()) {
+            return;
+        }
+        if (exceeds(TOTAL, bytes, totalLimit())) {
+            throw new QuotaExceededException("Storage quota exceeded");
+        }
+        if (clientId != null && exceeds(clientId, bytes, clientLimit())) {
+            throw new QuotaExceededException("Storage quota exceeded for client " + clientId);
+        }
+    }
+
+    // 文件写入后按实际大小占用配额，count为本次保存的文件数；超出时抛出异常，由调用方删除已写入的内容
+    public void charge(String clientId, long bytes, int count) {
+        if (!charge(TOTAL, bytes, count, totalLimit())) {
+            throw new QuotaExceededException("Storage quota exceeded");
+        }
+        if (clientId != null && !charge(clientId, bytes, count, clientLimit())) {
+            storageUsageRepository.release(TOTAL, bytes, count, System.currentTimeMillis());
+            throw new QuotaExceededException("Storage quota exceeded for client " + clientId);
+        }
+    }
+
+    public void release(String clientId, long bytes, int count) {
+        long now = System.currentTimeMillis();
+        storageUsageRepository.release(TOTAL, bytes, count, now);
+        if (clientId != null) {
+            storageUsageRepository.release(clientId, bytes, count, now);
+        }
+    }
+
+    public int backfill() {
+        return storageUsageRepository.backfillTotal(TOTAL, System.currentTimeMillis());
+    }
+
+    public Map<String, Object> getUsage(String clientId) {
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("total", usage(TOTAL, totalLimit()));
+        usage.put("client", usage(clientId, clientLimit()));
+        usage.put("clientId", clientId);
+        return usage;
+    }
+
+    private Map<String, Object> usage(String clientId, long limit) {
+        StorageUsage record = storageUsageRepository.findById(clientId).orElse(null);
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("usedBytes", record != null ? record.getUsedBytes() : 0L);
+        usage.put("fileCount", record != null ? record.getFileCount() : 0L);
+        usage.put("limitBytes", limit > 0 ? limit : null);
+        return usage;
+    }
+
+    private boolean charge(String clientId, long bytes, int count, long limit) {
+        long now = System.currentTimeMillis();
+        if (storageUsageRepository.charge(clientId, bytes, count, limit, now) > 0) {
+            return true;
+        }
+        if (storageUsageRepository.existsById(clientId)) {
+            return false;
+        }
+        if (limit > 0 && bytes > limit) {
+            return false;
+        }
+        try {
+            storageUsageRepository.insertFirstCharge(clientId, bytes, count, now);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // 并发上传时对方已插入记录
+            return storageUsageRepository.charge(clientId, bytes, count, limit, now) > 0;
+        }
+    }
+
+    private boolean exceeds(String clientId, long bytes, long limit) {
+        if (limit <= 0) {
+            return false;
+        }
+        long used = storageUsageRepository.findById(clientId).map(StorageUsage::getUsedBytes).orElse(0L);
+        return used + bytes > limit;
+    }
+
+    private long totalLimit() {
+        return quotaConfig.getMaxTotalSize() * 1024 * 1024;
+    }
+
+    private long clientLimit() {
+        return quotaConfig.getMaxClientSize() * 1024 * 1024;
+    }
+}
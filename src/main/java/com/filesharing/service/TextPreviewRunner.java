@@ -0,0 +1,33 @@
+package com.filesharing.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// 启动时为升级前写入的文本分批生成列表预览，每批使用独立事务
+@Component
+public class TextPreviewRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TextPreviewRunner.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private TextService textService;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long total = 0;
+        int processed;
+        do {
+            processed = textService.backfillPreviews(BATCH_SIZE);
+            total += processed;
+        } while (processed == BATCH_SIZE);
+        if (total > 0) {
+            log.info("Created previews for {} texts", total);
+        }
+    }
+}
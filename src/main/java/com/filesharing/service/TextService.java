@@ -1,53 +1,366 @@
 package com.filesharing.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.filesharing.model.SearchPosting;
 import com.filesharing.model.TextEntity;
+import com.filesharing.model.TextHeader;
+import com.filesharing.model.TextSummary;
+import com.filesharing.repository.ListQuery;
 import com.filesharing.repository.TextRepository;
+import com.filesharing.search.SearchIndexService;
+import com.filesharing.storage.CompressionService;
+import com.filesharing.util.ExpiryUtil;
+import com.filesharing.util.MeteredInputStream;
 import com.filesharing.util.PasswordUtil;
+import com.filesharing.util.StreamUtil;
+import com.filesharing.util.TextPreviewUtil;
+import com.filesharing.util.TextStatsInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 
 @Service
 public class TextService {
 
+    // 不超过该字节数的文本下载时在内存中暂存，更大的文本暂存到临时文件
+    private static final long SPOOL_MEMORY_LIMIT = 256 * 1024;
+
     @Autowired
     private TextRepository textRepository;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
     public TextEntity storeText(String content, String remark, String password) {
+        return storeText(content, remark, password, null);
+    }
+
+    // expireTime为过期时间戳，为空表示永不过期
+    public TextEntity storeText(String content, String remark, String password, Long expireTime) {
+        String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+        TextEntity saved = textRepository.save(newText(content, remark, encryptedPassword, expireTime));
+        saved.setContent(content);
+        searchIndexService.indexText(saved.getId(), remark, encryptedPassword == null ? content : null);
+        return saved;
+    }
+
+    // 批量保存，remarks与contents一一对应，密码和过期时间对整批生效且密码只加密一次；
+    // 主键由序列分配，Hibernate按hibernate.jdbc.batch_size分批插入
+    public List<TextEntity> storeTexts(List<String> contents, List<String> remarks, String password, Long expireTime) {
         String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+        List<TextEntity> texts = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            texts.add(newText(contents.get(i), remarks.get(i), encryptedPassword, expireTime));
+        }
+        List<TextEntity> saved = textRepository.saveAll(texts);
+        searchIndexService.indexTexts(saved, encryptedPassword == null ? contents : null);
+        return saved;
+    }
+
+    private TextEntity newText(String content, String remark, String encryptedPassword, Long expireTime) {
         TextEntity textEntity = new TextEntity(content, remark, encryptedPassword);
-        return textRepository.save(textEntity);
+        textEntity.setExpireTime(expireTime);
+        textEntity.setPreview(TextPreviewUtil.preview(content));
+        textEntity.setLineCount(TextPreviewUtil.countLines(content));
+        if (content != null) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            textEntity.setByteCount((long) bytes.length);
+            textEntity.setContentHash(sha256(bytes));
+            if (compressionService.shouldCompressText(bytes.length)) {
+                byte[] compressed = compress(bytes);
+                // 压缩后没有变小的文本仍按原文存储
+                if (compressed.length < bytes.length) {
+                    textEntity.setContent(null);
+                    textEntity.setCompressedContent(compressed);
+                    textEntity.setEncoding(CompressionService.DEFLATE);
+                }
+            }
+        }
+        return textEntity;
+    }
+
+    // 请求体先按UTF-8字节流写入临时文件，同时计算哈希、预览和行数；读取请求体期间不占用数据库连接，
+    // 保存时再从临时文件边读边压缩写入LOB列，内存中既不保留完整内容也不生成完整的String
+    public TextEntity storeText(InputStream in, long maxBytes, String remark, String password, Long expireTime)
+            throws IOException {
+        MessageDigest digest = sha256Digest();
+        MeteredInputStream source = new MeteredInputStream(in);
+        TextStatsInputStream stats = new TextStatsInputStream(source);
+        Path tmp = Files.createTempFile("text-upload-", ".tmp");
+        try {
+            try (InputStream body = new DigestInputStream(stats, digest);
+                 OutputStream spool = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[StreamUtil.CHUNK_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (source.getCount() > maxBytes) {
+                        throw new RuntimeException("Text size exceeds the limit of " + maxBytes + " bytes");
+                    }
+                    spool.write(buffer, 0, read);
+                }
+            }
+
+            String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+            TextEntity textEntity = new TextEntity(null, remark, encryptedPassword);
+            textEntity.setExpireTime(expireTime);
+            textEntity.setByteCount(source.getCount());
+            textEntity.setContentHash(HexFormat.of().formatHex(digest.digest()));
+            textEntity.setPreview(stats.getPreview());
+            textEntity.setLineCount(stats.getLineCount());
+            // 较短的文本或关闭压缩时按原文存储
+            boolean compress = compressionService.shouldCompressText((int) Math.min(source.getCount(), Integer.MAX_VALUE));
+            textEntity.setEncoding(compress ? CompressionService.DEFLATE : null);
+            TextEntity saved;
+            try (InputStream content = compress ?
+                    compressionService.compress(Files.newInputStream(tmp)) : Files.newInputStream(tmp)) {
+                // 插入元数据和写入内容在同一个事务中，不会出现没有内容的文本
+                saved = new TransactionTemplate(transactionManager).execute(status -> {
+                    TextEntity inserted = textRepository.saveAndFlush(textEntity);
+                    jdbcTemplate.update("UPDATE texts SET " + (compress ? "compressed_content" : "content")
+                            + " = ? WHERE id = ?", ps -> {
+                        if (compress) {
+                            ps.setBinaryStream(1, content);
+                        } else {
+                            ps.setCharacterStream(1, new InputStreamReader(content, StandardCharsets.UTF_8));
+                        }
+                        ps.setLong(2, inserted.getId());
+                    });
+                    return inserted;
+                });
+            }
+            if (searchIndexService.isEnabled()) {
+                // 只读取需要索引的前缀
+                String indexed = encryptedPassword == null ?
+                        searchIndexService.readIndexedContent(Files.newInputStream(tmp)) : null;
+                searchIndexService.indexText(saved.getId(), remark, indexed);
+            }
+            return saved;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
     }
 
     public TextEntity getText(Long textId) {
-        TextEntity text = textRepository.findById(textId)
-                .orElseThrow(() -> new RuntimeException("Text not found with id " + textId));
+        TextEntity text = loadText(textId);
         if (text.getPassword() != null) {
             text.setContent("*****");
+            text.setCompressedContent(null);
+            return text;
         }
-        return text;
+        return inflate(text);
     }
 
     public TextEntity getTextWithPassword(Long textId, String password) {
-        TextEntity text = textRepository.findById(textId)
-                .orElseThrow(() -> new RuntimeException("Text not found with id " + textId));
+        TextEntity text = loadText(textId);
         if (text.getPassword() != null) {
             if (!PasswordUtil.verifyPassword(password, text.getPassword())) {
                 throw new RuntimeException("Invalid password");
             }
         }
-        return text;
+        return inflate(text);
+    }
+
+    // 只读取校验信息并验证密码，条件请求命中时无需加载文本内容
+    public TextHeader getTextHeader(Long textId, String password) {
+        TextHeader header = textRepository.findHeaderById(textId)
+                .filter(h -> !ExpiryUtil.isExpired(h.getExpireTime()))
+                .orElseThrow(() -> new RuntimeException("Text not found with id " + textId));
+        if (password != null && header.getPassword() != null) {
+            if (!PasswordUtil.verifyPassword(password, header.getPassword())) {
+                throw new RuntimeException("Invalid password");
+            }
+        }
+        return header;
     }
 
+    // 以UTF-8输出文本内容；查询时先把LOB复制到内存（较短的文本）或临时文件，释放连接后再输出，
+    // 慢速客户端下载期间不占用数据库连接；压缩存储的文本在输出时边解压边写出
+    public void writeContent(TextHeader header, OutputStream out) throws IOException {
+        boolean inMemory = header.getByteCount() != null && header.getByteCount() <= SPOOL_MEMORY_LIMIT;
+        ByteArrayOutputStream buffer = inMemory ? new ByteArrayOutputStream(header.getByteCount().intValue()) : null;
+        Path tmp = inMemory ? null : Files.createTempFile("text-download-", ".tmp");
+        try {
+            boolean[] compressed = new boolean[1];
+            try (OutputStream spool = inMemory ? buffer : Files.newOutputStream(tmp)) {
+                jdbcTemplate.query("SELECT content, compressed_content FROM texts WHERE id = ?", (RowCallbackHandler) rs -> {
+                    try {
+                        InputStream binary = header.getEncoding() != null ? rs.getBinaryStream(2) : null;
+                        if (binary != null) {
+                            compressed[0] = true;
+                            try (binary) {
+                                binary.transferTo(spool);
+                            }
+                            return;
+                        }
+                        try (Reader reader = rs.getCharacterStream(1)) {
+                            if (reader != null) {
+                                Writer writer = new OutputStreamWriter(spool, StandardCharsets.UTF_8);
+                                reader.transferTo(writer);
+                                writer.flush();
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, header.getId());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            try (InputStream spooled = inMemory ?
+                    new ByteArrayInputStream(buffer.toByteArray()) : Files.newInputStream(tmp);
+                 InputStream in = compressed[0] ? compressionService.decompress(spooled) : spooled) {
+                StreamUtil.copy(in, out);
+            }
+        } finally {
+            if (tmp != null) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    @Transactional
     public void deleteText(Long textId) {
-        TextEntity text = textRepository.findById(textId)
+        if (deleteTexts(List.of(textId)) == 0) {
+            throw new RuntimeException("Text not found with id " + textId);
+        }
+    }
+
+    // 按id批量删除，不加载文本内容；不存在的id被忽略，返回删除的数量
+    @Transactional
+    public int deleteTexts(Collection<Long> textIds) {
+        if (textIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = textRepository.deleteByIds(textIds);
+        searchIndexService.remove(SearchPosting.TYPE_TEXT, textIds);
+        return deleted;
+    }
+
+    // 删除一批已过期的文本，返回删除的数量
+    @Transactional
+    public int purgeExpiredTexts(long now, int batchSize) {
+        List<Long> ids = textRepository.findExpiredIds(now, PageRequest.ofSize(batchSize));
+        if (!ids.isEmpty()) {
+            textRepository.deleteAllByIdInBatch(ids);
+            searchIndexService.remove(SearchPosting.TYPE_TEXT, ids);
+        }
+        return ids.size();
+    }
+
+    // 按 (create_time, id) 键集分页，只返回预览，完整内容通过详情接口获取
+    public Slice<TextSummary> getTexts(ListQuery query) {
+        List<TextSummary> texts = textRepository.findSummaries(query, query.getLimit() + 1);
+        boolean hasNext = texts.size() > query.getLimit();
+        if (hasNext) {
+            texts = texts.subList(0, query.getLimit());
+        }
+        return new SliceImpl<>(texts, PageRequest.ofSize(query.getLimit()), hasNext);
+    }
+
+    // 为升级前写入的文本生成预览和行数，返回处理的数量
+    @Transactional
+    public int backfillPreviews(int batchSize) {
+        List<Long> ids = textRepository.findIdsWithoutPreview(PageRequest.ofSize(batchSize));
+        for (Long id : ids) {
+            TextEntity text = textRepository.findById(id).orElse(null);
+            if (text == null) {
+                continue;
+            }
+            // 实体处于事务中，解压后的内容不能写回实体
+            String content = text.getContent();
+            byte[] bytes = null;
+            if (text.getEncoding() != null && text.getCompressedContent() != null) {
+                try {
+                    bytes = compressionService.decompress(text.getCompressedContent());
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not decompress text " + id + ": " + e.getMessage(), e);
+                }
+                content = new String(bytes, StandardCharsets.UTF_8);
+            }
+            text.setPreview(TextPreviewUtil.preview(content));
+            text.setLineCount(TextPreviewUtil.countLines(content));
+            if (text.getByteCount() == null && content != null) {
+                text.setByteCount((long) (bytes != null ? bytes.length : content.getBytes(StandardCharsets.UTF_8).length));
+            }
+        }
+        return ids.size();
+    }
+
+    // 已过期但尚未被清理任务删除的文本按不存在处理
+    private TextEntity loadText(Long textId) {
+        return textRepository.findById(textId)
+                .filter(text -> !ExpiryUtil.isExpired(text.getExpireTime()))
                 .orElseThrow(() -> new RuntimeException("Text not found with id " + textId));
-        textRepository.delete(text);
     }
 
-    public List<TextEntity> getAllTexts() {
-        return textRepository.findAll(Sort.by(Sort.Direction.DESC, "createTime"));
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256Digest().digest(bytes));
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private byte[] compress(byte[] bytes) {
+        try {
+            return compressionService.compress(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not compress text: " + e.getMessage(), e);
+        }
+    }
+
+    // 查询结果不在事务中，解压后的内容只写回游离实体，不会更新数据库
+    private TextEntity inflate(TextEntity text) {
+        if (text.getEncoding() != null && text.getCompressedContent() != null) {
+            byte[] bytes;
+            try {
+                bytes = compressionService.decompress(text.getCompressedContent());
+            } catch (IOException e) {
+                throw new RuntimeException("Could not decompress text " + text.getId() + ": " + e.getMessage(), e);
+            }
+            text.setContent(new String(bytes, StandardCharsets.UTF_8));
+            text.setCompressedContent(null);
+        }
+        return text;
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.filesharing.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import com.filesharing.config.FileUploadConfig;
+import com.filesharing.model.FileEntity;
+import com.filesharing.model.UploadSession;
+import com.filesharing.repository.UploadSessionRepository;
+import com.filesharing.util.ExpiryUtil;
+import com.filesharing.util.PasswordUtil;
+import com.filesharing.util.StreamUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Service
+public class UploadSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final String PART_SUFFIX = ".part";
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    public UploadSession createSession(String fileName, long totalSize, Integer chunkSize,
+                                       String contentType, String remark, String password,
+                                       Long expiresIn, Integer maxDownloads, String clientId) throws IOException {
+        if (totalSize <= 0) {
+            throw new RuntimeException("Total size must be positive");
+        }
+        if (totalSize > fileUploadConfig.getMaxFileSize() * 1024 * 1024) {
+            throw new RuntimeException("File size exceeds the limit of " + fileUploadConfig.getMaxFileSize() + "MB");
+        }
+        int size = chunkSize != null ? chunkSize : fileUploadConfig.getDefaultChunkSize();
+        if (size <= 0 || size > fileUploadConfig.getMaxChunkSize()) {
+            throw new RuntimeException("Chunk size must be between 1 and " + fileUploadConfig.getMaxChunkSize());
+        }
+        // 创建时先校验，避免传完所有分片后提交才失败
+        ExpiryUtil.expireTime(expiresIn);
+        ExpiryUtil.validateMaxDownloads(maxDownloads);
+        quotaService.checkAvailable(clientId, totalSize);
+        long chunkCount = (totalSize + size - 1) / size;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new RuntimeException("Too many chunks, use a larger chunk size");
+        }
+
+        String cleanName = StringUtils.cleanPath(fileName);
+        String encryptedPassword = password != null ? PasswordUtil.encryptPassword(password) : null;
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), cleanName,
+                fileService.resolveContentType(cleanName, contentType), totalSize, size, (int) chunkCount,
+                remark, encryptedPassword);
+        session.setExpiresIn(expiresIn);
+        session.setMaxDownloads(maxDownloads);
+        session.setClientId(clientId);
+        Files.createDirectories(sessionPath(session.getId()));
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession getSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found with id " + uploadId));
+    }
+
+    // 分片先写入临时文件，完整接收后再原子重命名，避免中断的请求留下残缺分片
+    public long writeChunk(String uploadId, int index, InputStream in) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (!UploadSession.STATUS_OPEN.equals(session.getStatus())) {
+            throw new RuntimeException("Upload session is already being committed");
+        }
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new RuntimeException("Chunk index out of range: " + index);
+        }
+        long expected = expectedChunkSize(session, index);
+
+        Path dir = sessionPath(uploadId);
+        Path tmp = Files.createTempFile(dir, "chunk-" + index + "-", ".tmp");
+        long written;
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                // 多读一个字节用于发现超长分片，单次写入的数据量不超过分片大小
+                written = StreamUtil.copy(in, out, expected + 1);
+            }
+            if (written != expected) {
+                throw new RuntimeException("Chunk " + index + " must be " + expected + " bytes but was " + written);
+            }
+            Files.move(tmp, dir.resolve(index + PART_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        uploadSessionRepository.touch(uploadId, System.currentTimeMillis());
+        return written;
+    }
+
+    public List<Integer> getReceivedChunks(String uploadId) throws IOException {
+        getSession(uploadId);
+        List<Integer> received = new ArrayList<>();
+        try (Stream<Path> files = Files.list(sessionPath(uploadId))) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(PART_SUFFIX))
+                    .map(name -> Integer.valueOf(name.substring(0, name.length() - PART_SUFFIX.length())))
+                    .sorted()
+                    .forEach(received::add);
+        }
+        return received;
+    }
+
+    // 按顺序串联各分片流式写入存储，不在内存中拼接完整文件
+    public FileEntity commit(String uploadId) throws IOException {
+        UploadSession session = getSession(uploadId);
+        if (uploadSessionRepository.changeStatus(uploadId, UploadSession.STATUS_OPEN,
+                UploadSession.STATUS_COMMITTING, System.currentTimeMillis()) == 0) {
+            throw new RuntimeException("Upload session is already being committed");
+        }
+        FileEntity fileEntity;
+        try {
+            Path dir = sessionPath(uploadId);
+            List<Path> parts = new ArrayList<>();
+            for (int i = 0; i < session.getChunkCount(); i++) {
+                Path part = dir.resolve(i + PART_SUFFIX);
+                if (!Files.exists(part)) {
+                    throw new RuntimeException("Chunk " + i + " has not been uploaded");
+                }
+                parts.add(part);
+            }
+
+            try (InputStream in = new SequenceInputStream(openLazily(parts))) {
+                fileEntity = fileService.storeStream(session.getFileName(), session.getFileType(), in,
+                        session.getRemark(), session.getPassword(),
+                        ExpiryUtil.expireTime(session.getExpiresIn()), session.getMaxDownloads(), session.getClientId());
+            }
+        } catch (RuntimeException | IOException e) {
+            // 提交失败时恢复会话，客户端可以补传分片后重试
+            uploadSessionRepository.changeStatus(uploadId, UploadSession.STATUS_COMMITTING, UploadSession.STATUS_OPEN,
+                    System.currentTimeMillis());
+            throw e;
+        }
+        // 文件已保存并占用配额，此后提交视为成功，不能再恢复会话，否则客户端重试会重复保存；
+        // 清理失败只记录日志，COMMITTED状态的会话由定时任务删除
+        try {
+            uploadSessionRepository.changeStatus(uploadId, UploadSession.STATUS_COMMITTING,
+                    UploadSession.STATUS_COMMITTED, System.currentTimeMillis());
+            deleteSession(uploadId);
+        } catch (RuntimeException | IOException e) {
+            log.warn("Could not clean up committed upload session {}", uploadId, e);
+        }
+        return fileEntity;
+    }
+
+    public void abort(String uploadId) throws IOException {
+        getSession(uploadId);
+        deleteSession(uploadId);
+    }
+
+    // 定期清理长时间没有收到分片的会话；正在提交的会话跳过，避免删除仍在读取的分片
+    @Scheduled(fixedDelayString = "${app.upload.session-cleanup-interval:PT10M}")
+    public void purgeExpiredSessions() {
+        long cutoff = System.currentTimeMillis() - fileUploadConfig.getSessionTtlMinutes() * 60 * 1000;
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findByStatusNotAndUpdateTimeLessThan(UploadSession.STATUS_COMMITTING,
+                    cutoff, PageRequest.of(0, 100));
+            for (UploadSession session : expired) {
+                try {
+                    deleteSession(session.getId());
+                    log.info("Removed abandoned upload session {}", session.getId());
+                } catch (IOException e) {
+                    log.warn("Could not remove upload session {}", session.getId(), e);
+                    return;
+                }
+            }
+        } while (!expired.isEmpty());
+    }
+
+    private void deleteSession(String uploadId) throws IOException {
+        FileSystemUtils.deleteRecursively(sessionPath(uploadId));
+        uploadSessionRepository.deleteById(uploadId);
+    }
+
+    private long expectedChunkSize(UploadSession session, int index) {
+        long chunkSize = session.getChunkSize();
+        if (index < session.getChunkCount() - 1) {
+            return chunkSize;
+        }
+        return session.getTotalSize() - chunkSize * (session.getChunkCount() - 1);
+    }
+
+    private Path sessionPath(String uploadId) {
+        // 会话ID为服务端生成的UUID，校验格式防止路径穿越
+        UUID.fromString(uploadId);
+        return Paths.get(fileUploadConfig.getSessionDir()).toAbsolutePath().normalize().resolve(uploadId);
+    }
+
+    private static Enumeration<InputStream> openLazily(List<Path> parts) {
+        Iterator<Path> iterator = parts.iterator();
+        return new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return Files.newInputStream(iterator.next());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
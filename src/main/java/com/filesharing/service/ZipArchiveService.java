@@ -0,0 +1,117 @@
+package com.filesharing.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.storage.CompressionService;
+import com.filesharing.util.StreamUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// 多个文件打包下载，边读取边写入ZipOutputStream，不生成临时文件，也不在内存中组装压缩包
+@Service
+public class ZipArchiveService {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private CompressionService compressionService;
+
+    // 按请求顺序加载文件，重复的id只打包一次；任一文件不存在、已过期或密码错误时整个请求失败
+    public List<FileEntity> getFiles(Collection<Long> fileIds, String password) {
+        List<FileEntity> files = new ArrayList<>();
+        for (Long fileId : new LinkedHashSet<>(fileIds)) {
+            files.add(fileService.getFileWithPassword(fileId, password));
+        }
+        return files;
+    }
+
+    // 返回写出的压缩包字节数，长度超过4GB时ZipOutputStream自动使用ZIP64格式
+    public long write(List<FileEntity> files, OutputStream out) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(out);
+        // deflate每次只输出512字节，缓冲后再写入响应
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(counter, StreamUtil.CHUNK_SIZE));
+        Set<String> names = new HashSet<>();
+        for (FileEntity file : files) {
+            long length = fileService.getContentLength(file);
+            ZipEntry entry = new ZipEntry(entryName(file, names));
+            if (file.getCreateTime() != null) {
+                entry.setTime(file.getCreateTime());
+            }
+            boolean compressible = compressionService.isCompressible(file.getFileName(), contentType(file));
+            if (!compressible && file.getCrc32() != null) {
+                // 已压缩的格式原样存储，STORED条目的大小和CRC必须写在条目头中，使用上传时计算的值
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(length);
+                entry.setCompressedSize(length);
+                entry.setCrc(file.getCrc32());
+            } else {
+                // 缺少CRC的旧文件以不压缩的deflate写入，大小和CRC在内容之后的数据描述符中给出，不需要预先读一遍
+                zip.setLevel(compressible ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+            }
+            zip.putNextEntry(entry);
+            fileService.writeContent(file, 0, length, zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        return counter.count;
+    }
+
+    // 检测到的类型比上传时声明的类型更可靠
+    private String contentType(FileEntity file) {
+        return file.getDetectedType() != null ? file.getDetectedType() : file.getFileType();
+    }
+
+    // 去掉路径部分，避免解压时写到目标目录之外；同名文件按 name (1).ext 的形式区分
+    static String entryName(FileEntity file, Set<String> used) {
+        String name = file.getFileName() != null ? file.getFileName() : "";
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1).trim();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            name = "file-" + file.getId();
+        }
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 1; !used.add(candidate.toLowerCase(Locale.ROOT)); i++) {
+            candidate = base + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
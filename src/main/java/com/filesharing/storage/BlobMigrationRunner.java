@@ -0,0 +1,60 @@
+package com.filesharing.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.filesharing.config.StorageConfig;
+import com.filesharing.service.QuotaService;
+
+// 启动时为旧数据补全文件大小、引用计数和存储用量，并在 --app.storage.migrate-on-startup=true 时将数据库中的旧文件内容分批迁移到BlobStore
+@Component
+public class BlobMigrationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobMigrationRunner.class);
+
+    @Autowired
+    private BlobMigrationService migrationService;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private StorageConfig storageConfig;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int backfilled = migrationService.backfillFileSizes();
+        if (backfilled > 0) {
+            log.info("Recorded file size for {} legacy files", backfilled);
+        }
+        int referenced = blobReferenceService.backfill();
+        if (referenced > 0) {
+            log.info("Created reference counts for {} stored blobs", referenced);
+        }
+        if (quotaService.backfill() > 0) {
+            log.info("Initialized storage usage from existing files");
+        }
+        if (!storageConfig.isMigrateOnStartup()) {
+            return;
+        }
+
+        int batchSize = storageConfig.getMigrationBatchSize();
+        long total = 0;
+        int migrated;
+        do {
+            migrated = migrationService.migrateBatch(batchSize);
+            total += migrated;
+            if (migrated > 0) {
+                log.info("Migrated {} files to blob store", total);
+            }
+        } while (migrated == batchSize);
+        log.info("Blob migration finished, {} files migrated", total);
+    }
+}
@@ -0,0 +1,48 @@
+package com.filesharing.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.repository.FileRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.List;
+
+@Service
+public class BlobMigrationService {
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Transactional
+    public int backfillFileSizes() {
+        return fileRepository.backfillLegacyFileSizes();
+    }
+
+    // 每批在独立事务中提交，避免长时间持有锁或一次性加载大量LOB
+    @Transactional
+    public int migrateBatch(int batchSize) throws IOException {
+        List<FileEntity> batch = fileRepository.findByStorageKeyIsNullAndDataIsNotNullOrderByIdAsc(
+                PageRequest.of(0, batchSize));
+        for (FileEntity file : batch) {
+            try (InputStream in = file.getData().getBinaryStream()) {
+                StoredBlob blob = blobReferenceService.store(in);
+                file.setStorageKey(blob.getKey());
+                file.setFileSize(blob.getSize());
+                file.setData(null);
+            } catch (SQLException e) {
+                throw new IOException("Could not read file " + file.getId() + ": " + e.getMessage(), e);
+            }
+        }
+        fileRepository.saveAll(batch);
+        return batch.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.filesharing.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.config.StorageConfig;
+import com.filesharing.model.BlobRecord;
+import com.filesharing.repository.BlobRecordRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 维护去重存储对象的引用计数，最后一个引用释放后延迟删除存储文件
+@Service
+public class BlobReferenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobReferenceService.class);
+
+    @Autowired
+    private BlobRecordRepository blobRecordRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private StorageConfig storageConfig;
+
+    // 按存储键分段加锁，清理任务删除记录和文件、上传增加引用和判断是否复用已有文件，两组操作对同一个键互斥
+    private final ReentrantLock[] keyLocks = new ReentrantLock[64];
+
+    {
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // 写入内容并占用一个引用；先增加引用计数再判断目标文件是否已存在，清理任务不会删除刚被复用的文件
+    public StoredBlob store(InputStream in) throws IOException {
+        try (StagedBlob staged = blobStore.stage(in)) {
+            ReentrantLock lock = lockFor(staged.getKey());
+            lock.lock();
+            try {
+                acquire(staged);
+                try {
+                    blobStore.commit(staged);
+                } catch (IOException | RuntimeException e) {
+                    release(staged.getKey());
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return new StoredBlob(staged.getKey(), staged.getSize());
+        }
+    }
+
+    public void acquire(StoredBlob blob) {
+        if (blobRecordRepository.incrementRefCount(blob.getKey()) > 0) {
+            return;
+        }
+        try {
+            blobRecordRepository.insertFirstReference(blob.getKey(), blob.getSize(), System.currentTimeMillis());
+        } catch (DataIntegrityViolationException e) {
+            // 并发上传了相同内容，对方已插入记录
+            blobRecordRepository.incrementRefCount(blob.getKey());
+        }
+    }
+
+    public void release(String storageKey) {
+        blobRecordRepository.decrementRefCount(storageKey, System.currentTimeMillis());
+    }
+
+    public int backfill() {
+        return blobRecordRepository.backfillFromFiles(System.currentTimeMillis());
+    }
+
+    // 宽限期内被重新上传的内容会恢复引用；删除时持有该键的锁，与store中的去重判断互斥
+    @Scheduled(fixedDelayString = "${app.storage.blob-gc-interval:PT5M}")
+    public void purgeUnreferencedBlobs() {
+        long cutoff = System.currentTimeMillis() - storageConfig.getBlobGcGraceMinutes() * 60 * 1000;
+        List<BlobRecord> released;
+        do {
+            released = blobRecordRepository.findByRefCountLessThanEqualAndReleaseTimeLessThan(0, cutoff,
+                    PageRequest.of(0, 100));
+            for (BlobRecord record : released) {
+                ReentrantLock lock = lockFor(record.getStorageKey());
+                lock.lock();
+                try {
+                    if (blobRecordRepository.deleteIfUnreferenced(record.getStorageKey()) == 0) {
+                        continue;
+                    }
+                    blobStore.delete(record.getStorageKey());
+                } catch (IOException e) {
+                    log.warn("Could not delete blob {}", record.getStorageKey(), e);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } while (!released.isEmpty());
+    }
+
+    private ReentrantLock lockFor(String storageKey) {
+        return keyLocks[Math.floorMod(storageKey.hashCode(), keyLocks.length)];
+    }
+}
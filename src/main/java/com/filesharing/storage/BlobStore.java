@@ -0,0 +1,35 @@
+package com.filesharing.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface BlobStore {
+
+    // 写入内容并返回存储键，相同内容得到相同的键
+    default StoredBlob put(InputStream in) throws IOException {
+        try (StagedBlob staged = stage(in)) {
+            commit(staged);
+            return new StoredBlob(staged.getKey(), staged.getSize());
+        }
+    }
+
+    // 写入临时位置并计算存储键，提交前其他请求看不到该内容
+    StagedBlob stage(InputStream in) throws IOException;
+
+    // 目标已存在时复用已有内容，否则移动到目标位置；调用方负责关闭staged
+    void commit(StagedBlob staged) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    long size(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    // 内容位于本地文件系统时返回其路径，用于零拷贝传输；其他实现返回null
+    default Path localPath(String key) {
+        return null;
+    }
+}
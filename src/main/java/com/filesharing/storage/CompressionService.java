@@ -0,0 +1,177 @@
+package com.filesharing.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.filesharing.config.CompressionConfig;
+import com.filesharing.util.MeteredInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
+
+// 存储时的透明压缩，使用JDK自带的deflate(zlib)格式，可直接作为HTTP的deflate编码返回
+@Service
+public class CompressionService {
+
+    public static final String DEFLATE = "deflate";
+
+    // 已压缩的格式（jpg/png/zip/docx/pdf等）不在列表中，保持原样存储
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/json", "application/xml", "application/javascript", "application/x-javascript",
+            "application/x-yaml", "application/yaml", "application/sql", "application/csv", "application/x-ndjson",
+            "application/msword", "application/vnd.ms-excel", "application/vnd.ms-powerpoint",
+            "application/rtf", "image/svg+xml", "image/bmp");
+
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(
+            "txt", "log", "csv", "tsv", "json", "xml", "yaml", "yml", "md", "sql", "html", "htm", "css", "js",
+            "svg", "ini", "conf", "properties", "doc", "xls", "ppt", "rtf", "bmp");
+
+    @Autowired
+    private CompressionConfig compressionConfig;
+
+    private final AtomicLong compressNanos = new AtomicLong();
+
+    private final AtomicLong decompressNanos = new AtomicLong();
+
+    private final AtomicLong originalBytes = new AtomicLong();
+
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    public boolean shouldCompress(String fileName, String contentType) {
+        return compressionConfig.isEnabled() && isCompressible(fileName, contentType);
+    }
+
+    // 只按类型判断，与是否开启存储压缩无关，打包下载时也用于选择条目的压缩方式
+    public boolean isCompressible(String fileName, String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            int parameters = type.indexOf(';');
+            if (parameters >= 0) {
+                type = type.substring(0, parameters).trim();
+            }
+            if (type.startsWith("text/") || COMPRESSIBLE_TYPES.contains(type)) {
+                return true;
+            }
+            if (!type.equals("application/octet-stream")) {
+                return false;
+            }
+        }
+        // 未知类型根据扩展名判断
+        if (fileName != null && fileName.contains(".")) {
+            String extension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase(Locale.ROOT);
+            return COMPRESSIBLE_EXTENSIONS.contains(extension);
+        }
+        return false;
+    }
+
+    public boolean shouldCompressText(int length) {
+        return compressionConfig.isEnabled() && length >= compressionConfig.getTextMinSize();
+    }
+
+    // 返回边读边压缩的流，源数据不会整体进入内存
+    public InputStream compress(InputStream in) {
+        MeteredInputStream source = new MeteredInputStream(in);
+        return new CodecInputStream(new DeflaterInputStream(source), source, compressNanos) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                // 可能被调用方和存储端各关闭一次，只统计一次
+                if (!closed) {
+                    closed = true;
+                    originalBytes.addAndGet(source.getCount());
+                    compressedBytes.addAndGet(getCount());
+                }
+            }
+        };
+    }
+
+    public InputStream decompress(InputStream in) {
+        MeteredInputStream source = new MeteredInputStream(in);
+        return new CodecInputStream(new InflaterInputStream(source), source, decompressNanos);
+    }
+
+    public byte[] compress(byte[] data) throws IOException {
+        try (InputStream in = compress(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    public byte[] decompress(byte[] data) throws IOException {
+        try (InputStream in = decompress(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.get();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.get();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.get();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    // 统计编解码耗时，扣除读取底层数据所用的时间
+    private static class CodecInputStream extends FilterInputStream {
+        private final MeteredInputStream source;
+
+        private final AtomicLong codecNanos;
+
+        private long count;
+
+        CodecInputStream(InputStream codec, MeteredInputStream source, AtomicLong codecNanos) {
+            super(codec);
+            this.source = source;
+            this.codecNanos = codecNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            long sourceBefore = source.getNanos();
+            int b = super.read();
+            record(start, sourceBefore);
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            long sourceBefore = source.getNanos();
+            int read = super.read(b, off, len);
+            record(start, sourceBefore);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        private void record(long start, long sourceBefore) {
+            long elapsed = System.nanoTime() - start;
+            codecNanos.addAndGet(elapsed - (source.getNanos() - sourceBefore));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.filesharing.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 已写入临时文件、已知存储键但尚未对外可见的内容，关闭时删除未被提交的临时文件
+public class StagedBlob extends StoredBlob implements AutoCloseable {
+    private final Path tmp;
+
+    public StagedBlob(String key, long size, Path tmp) {
+        super(key, size);
+        this.tmp = tmp;
+    }
+
+    public Path getTmp() {
+        return tmp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(tmp);
+    }
+}
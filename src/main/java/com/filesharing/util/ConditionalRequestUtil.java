@@ -0,0 +1,41 @@
+package com.filesharing.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+
+// 条件请求判断，只需要元数据中的ETag和修改时间，不读取内容
+public class ConditionalRequestUtil {
+
+    // If-None-Match存在时忽略If-Modified-Since，ETag按弱比较匹配
+    public static boolean isNotModified(HttpServletRequest request, String etag, Long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+            String opaque = stripWeak(etag);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified == null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return false;
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP日期只精确到秒
+            return since >= 0 && lastModified / 1000 * 1000 <= since;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,39 @@
+package com.filesharing.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class CursorUtil {
+
+    // 游标为 createTime:id 的URL安全Base64编码，对客户端不透明
+    public static String encode(long createTime, long id) {
+        String raw = createTime + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 只按id排序的结果（如搜索）使用的游标
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeId(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static long[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new long[] {
+                    Long.parseLong(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            };
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+}
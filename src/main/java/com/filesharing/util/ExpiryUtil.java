@@ -0,0 +1,25 @@
+package com.filesharing.util;
+
+public class ExpiryUtil {
+
+    // 有效期以秒为单位，从当前时间起算；为空表示永不过期
+    public static Long expireTime(Long expiresInSeconds) {
+        if (expiresInSeconds == null) {
+            return null;
+        }
+        if (expiresInSeconds <= 0) {
+            throw new RuntimeException("expiresIn must be a positive number of seconds");
+        }
+        return Math.addExact(System.currentTimeMillis(), Math.multiplyExact(expiresInSeconds, 1000L));
+    }
+
+    public static void validateMaxDownloads(Integer maxDownloads) {
+        if (maxDownloads != null && maxDownloads <= 0) {
+            throw new RuntimeException("maxDownloads must be positive");
+        }
+    }
+
+    public static boolean isExpired(Long expireTime) {
+        return expireTime != null && expireTime <= System.currentTimeMillis();
+    }
+}
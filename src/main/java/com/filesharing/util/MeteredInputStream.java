@@ -0,0 +1,53 @@
+package com.filesharing.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// 统计读取的字节数和读取耗时
+public class MeteredInputStream extends FilterInputStream {
+    private long count;
+
+    private long nanos;
+
+    public MeteredInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = super.read();
+        nanos += System.nanoTime() - start;
+        if (b != -1) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        int read = super.read(b, off, len);
+        nanos += System.nanoTime() - start;
+        if (read > 0) {
+            count += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -1,9 +1,41 @@
 package com.filesharing.util;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 public class PasswordUtil {
     private static final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+
+    // 验证成功的结果缓存一段时间，同一密码的后续下载无需再次计算BCrypt
+    private static final long VERIFIED_TTL_MILLIS = 5 * 60 * 1000;
+
+    private static final int VERIFIED_MAX_ENTRIES = 10000;
+
+    private static final Map<String, Long> verified = new ConcurrentHashMap<>();
+
+    // 缓存键使用进程内随机密钥的HMAC，缓存中不保留可离线破解的密码摘要
+    private static final byte[] cacheKeySecret = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(cacheKeySecret);
+    }
+
+    // 静态工具类无法注入MeterRegistry，注册到全局注册表，由Spring Boot汇总到Actuator
+    private static final Timer cachedVerifyTimer = verifyTimer("true");
+
+    private static final Timer bcryptVerifyTimer = verifyTimer("false");
     
     public static String encryptPassword(String password) {
         if (password == null || password.trim().isEmpty()) {
@@ -16,6 +48,46 @@ public class PasswordUtil {
         if (rawPassword == null || encodedPassword == null) {
             return false;
         }
-        return encoder.matches(rawPassword, encodedPassword);
+        long start = System.nanoTime();
+        String cacheKey = cacheKey(rawPassword, encodedPassword);
+        long now = System.currentTimeMillis();
+        Long expiresAt = verified.get(cacheKey);
+        if (expiresAt != null && expiresAt > now) {
+            cachedVerifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        // 只缓存成功的验证，错误密码每次都要付出完整的BCrypt代价
+        boolean matches = encoder.matches(rawPassword, encodedPassword);
+        bcryptVerifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!matches) {
+            return false;
+        }
+        if (verified.size() >= VERIFIED_MAX_ENTRIES) {
+            verified.values().removeIf(expiry -> expiry <= now);
+        }
+        if (verified.size() < VERIFIED_MAX_ENTRIES) {
+            verified.put(cacheKey, now + VERIFIED_TTL_MILLIS);
+        }
+        return true;
+    }
+
+    private static String cacheKey(String rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(cacheKeySecret, "HmacSHA256"));
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static Timer verifyTimer(String cached) {
+        return Timer.builder("filesharing.password.verify")
+                .description("Password verification time, cached=false means a full BCrypt check")
+                .tag("cached", cached)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
     }
-}
\ No newline at end of file
+}
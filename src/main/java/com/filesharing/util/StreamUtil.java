@@ -0,0 +1,69 @@
+package com.filesharing.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+public class StreamUtil {
+    // 每次读写的固定块大小，单次传输占用的堆内存与文件大小无关
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        out.flush();
+        return total;
+    }
+
+    // 最多复制count个字节，用于按区间读取
+    public static long copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long total = 0;
+        while (total < count) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count - total));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        out.flush();
+        return total;
+    }
+
+    // 输出缓冲区中剩余的内容，堆外缓冲区也无需先复制到数组
+    public static long write(ByteBuffer buffer, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer);
+        }
+        out.flush();
+        return written;
+    }
+
+    // 不能使用sendfile时的回退路径：目标是包装了Servlet输出流的通道而不是socket，
+    // transferTo按固定大小的堆缓冲区逐块复制，并非零拷贝；零拷贝只发生在Tomcat的sendfile路径
+    public static long transfer(FileChannel channel, long position, long count, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        long transferred = 0;
+        while (transferred < count) {
+            long n = channel.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+        out.flush();
+        return transferred;
+    }
+}
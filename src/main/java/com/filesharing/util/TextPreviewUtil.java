@@ -0,0 +1,52 @@
+package com.filesharing.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// 文本列表显示的预览和行数，在写入时生成，列表查询不读取完整内容
+public class TextPreviewUtil {
+
+    // 预览的最大字符数
+    public static final int PREVIEW_LENGTH = 256;
+
+    // 生成预览最多需要的UTF-8字节数，流式上传时只保留这么多文件头
+    public static final int PREVIEW_BYTES = PREVIEW_LENGTH * 4;
+
+    public static String preview(String content) {
+        if (content == null) {
+            return "";
+        }
+        if (content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        int end = PREVIEW_LENGTH;
+        // 不拆开代理对
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
+    // 从UTF-8文件头生成预览，末尾被截断的字符不计入
+    public static String preview(byte[] head, int length) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(length);
+        decoder.decode(ByteBuffer.wrap(head, 0, length), chars, false);
+        chars.flip();
+        return preview(chars.toString());
+    }
+
+    // 最后一行没有换行符时也计为一行
+    public static long countLines(String content) {
+        if (content == null || content.isEmpty()) {
+            return 0;
+        }
+        long lines = content.chars().filter(c -> c == '\n').count();
+        return content.charAt(content.length() - 1) == '\n' ? lines : lines + 1;
+    }
+}
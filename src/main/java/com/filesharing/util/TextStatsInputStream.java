@@ -0,0 +1,56 @@
+package com.filesharing.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// 读取UTF-8文本时统计行数并保留文件头用于生成预览；多字节字符中不会出现换行符的字节值
+public class TextStatsInputStream extends FilterInputStream {
+    private final byte[] head = new byte[TextPreviewUtil.PREVIEW_BYTES];
+
+    private int headLength;
+
+    private long newlines;
+
+    private int last = -1;
+
+    public TextStatsInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            record(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        for (int i = 0; i < read; i++) {
+            record(b[off + i] & 0xFF);
+        }
+        return read;
+    }
+
+    public String getPreview() {
+        return TextPreviewUtil.preview(head, headLength);
+    }
+
+    public long getLineCount() {
+        return last == -1 || last == '\n' ? newlines : newlines + 1;
+    }
+
+    private void record(int b) {
+        if (headLength < head.length) {
+            head[headLength++] = (byte) b;
+        }
+        if (b == '\n') {
+            newlines++;
+        }
+        last = b;
+    }
+}
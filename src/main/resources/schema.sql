@@ -1,19 +1,112 @@
+-- 主键序列，每次分配50个id，批量插入时可以使用JDBC批处理
+CREATE SEQUENCE IF NOT EXISTS files_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS texts_seq START WITH 1 INCREMENT BY 50;
+
 -- 文件表
 CREATE TABLE IF NOT EXISTS files (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     file_name VARCHAR(255) NOT NULL,
     file_type VARCHAR(255),
     data BLOB,
+    storage_key VARCHAR(64),
+    file_size BIGINT,
+    encoding VARCHAR(16),
+    stored_size BIGINT,
     create_time BIGINT,
     remark VARCHAR(255),
-    password VARCHAR(255)
+    password VARCHAR(255),
+    expire_time BIGINT,
+    max_downloads INT,
+    download_count INT DEFAULT 0,
+    client_id VARCHAR(64),
+    processing_status VARCHAR(16),
+    detected_type VARCHAR(255),
+    content_hash VARCHAR(64),
+    crc32 BIGINT,
+    has_thumbnail BOOLEAN
+);
+
+CREATE INDEX IF NOT EXISTS idx_files_storage_key ON files (storage_key);
+CREATE INDEX IF NOT EXISTS idx_files_create_time_id ON files (create_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_files_type_create_time ON files (file_type, create_time DESC);
+CREATE INDEX IF NOT EXISTS idx_files_file_name ON files (file_name);
+CREATE INDEX IF NOT EXISTS idx_files_expire_time ON files (expire_time);
+CREATE INDEX IF NOT EXISTS idx_files_processing_status ON files (processing_status);
+
+-- 图片文件的缩略图
+CREATE TABLE IF NOT EXISTS file_thumbnails (
+    file_id BIGINT PRIMARY KEY,
+    content BLOB,
+    content_type VARCHAR(32),
+    width INT,
+    height INT
+);
+
+-- 去重存储对象表
+CREATE TABLE IF NOT EXISTS blobs (
+    storage_key VARCHAR(64) PRIMARY KEY,
+    blob_size BIGINT,
+    ref_count INT,
+    release_time BIGINT,
+    create_time BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_blobs_ref_count_release_time ON blobs (ref_count, release_time);
+
+-- 存储用量表，client_id为"*"的行记录所有文件的总量
+CREATE TABLE IF NOT EXISTS storage_usage (
+    client_id VARCHAR(64) PRIMARY KEY,
+    used_bytes BIGINT,
+    file_count BIGINT,
+    update_time BIGINT
 );
 
 -- 文本表
 CREATE TABLE IF NOT EXISTS texts (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     content CLOB,
+    compressed_content BLOB,
+    encoding VARCHAR(16),
+    byte_count BIGINT,
+    line_count BIGINT,
+    preview VARCHAR(256),
+    content_hash VARCHAR(64),
     create_time BIGINT,
     remark VARCHAR(255),
-    password VARCHAR(255)
-);
\ No newline at end of file
+    password VARCHAR(255),
+    expire_time BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_texts_create_time_id ON texts (create_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_texts_remark ON texts (remark);
+CREATE INDEX IF NOT EXISTS idx_texts_expire_time ON texts (expire_time);
+
+-- 搜索倒排索引表，doc_type为F（文件）或T（文本）
+CREATE TABLE IF NOT EXISTS search_postings (
+    term VARCHAR(32) NOT NULL,
+    doc_type VARCHAR(1) NOT NULL,
+    doc_id BIGINT NOT NULL,
+    PRIMARY KEY (term, doc_type, doc_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_postings_doc ON search_postings (doc_id, doc_type);
+
+-- 分片上传会话表
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    file_name VARCHAR(255),
+    file_type VARCHAR(255),
+    total_size BIGINT,
+    chunk_size INT,
+    chunk_count INT,
+    remark VARCHAR(255),
+    password VARCHAR(255),
+    expires_in BIGINT,
+    max_downloads INT,
+    client_id VARCHAR(64),
+    status VARCHAR(16),
+    create_time BIGINT,
+    update_time BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_update_time ON upload_sessions (update_time);
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.filesharing.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 每个压测线程独占一个记录器，结束后合并，记录过程不需要同步
+final class LatencyRecorder {
+
+	private final Map<String, Series> series = new TreeMap<>();
+
+	void record(String operation, long nanos, long bytes, boolean success) {
+		Series s = series.computeIfAbsent(operation, key -> new Series());
+		if (!success) {
+			s.errors++;
+			return;
+		}
+		if (s.count == s.latencies.length) {
+			s.latencies = Arrays.copyOf(s.latencies, s.latencies.length * 2);
+		}
+		s.latencies[s.count++] = nanos;
+		s.bytes += bytes;
+	}
+
+	void merge(LatencyRecorder other) {
+		other.series.forEach((operation, theirs) -> {
+			Series s = series.computeIfAbsent(operation, key -> new Series());
+			long[] merged = Arrays.copyOf(s.latencies, s.count + theirs.count);
+			System.arraycopy(theirs.latencies, 0, merged, s.count, theirs.count);
+			s.latencies = merged;
+			s.count += theirs.count;
+			s.bytes += theirs.bytes;
+			s.errors += theirs.errors;
+		});
+	}
+
+	Map<String, Series> series() {
+		return series;
+	}
+
+	long totalErrors() {
+		return series.values().stream().mapToLong(s -> s.errors).sum();
+	}
+
+	static final class Series {
+		private long[] latencies = new long[1024];
+
+		private int count;
+
+		private long bytes;
+
+		private long errors;
+
+		private long[] sorted;
+
+		int count() {
+			return count;
+		}
+
+		long bytes() {
+			return bytes;
+		}
+
+		long errors() {
+			return errors;
+		}
+
+		// 最近秩法计算分位数，返回毫秒
+		double percentileMillis(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			if (sorted == null) {
+				sorted = Arrays.copyOf(latencies, count);
+				Arrays.sort(sorted);
+			}
+			int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+			return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.filesharing.load;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// 通过真实的HTTP请求访问被测服务，上传内容按块生成，不在客户端缓冲整个文件
+final class LoadClient {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] TEXT_LINE = "2026-10-18 12:00:00 INFO  file-sharing load test line with some repeated words\n"
+			.getBytes(StandardCharsets.US_ASCII);
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final String baseUrl;
+
+	private final String acceptEncoding;
+
+	LoadClient(int port, String acceptEncoding) {
+		this.baseUrl = "http://localhost:" + port;
+		this.acceptEncoding = acceptEncoding;
+	}
+
+	// 返回新文件的id
+	long uploadFile(long size, boolean text, Random random) throws IOException, InterruptedException {
+		String boundary = "load-" + UUID.randomUUID();
+		String fileName = "load-" + random.nextInt(1_000_000) + (text ? ".txt" : ".bin");
+		byte[] head = ("--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+				+ "Content-Type: " + (text ? "text/plain" : "application/octet-stream") + "\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII);
+		byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		byte[] block = text ? textBlock() : randomBlock(random);
+		long length = head.length + size + tail.length;
+		HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+				HttpRequest.BodyPublishers.ofInputStream(() -> new SequenceInputStream(
+						new SequenceInputStream(new ByteArrayInputStream(head), new BlockInputStream(block, size)),
+						new ByteArrayInputStream(tail))),
+				length);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/files/upload"))
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.POST(body)
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		check(response);
+		return objectMapper.readTree(response.body()).get("id").asLong();
+	}
+
+	// 返回收到的字节数；bytesPerSecond大于0时按该速率读取，模拟慢速客户端
+	long download(long id, long bytesPerSecond) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/files/" + id))
+				.header("Accept-Encoding", acceptEncoding)
+				.GET()
+				.build();
+		HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		try (InputStream in = response.body()) {
+			check(response);
+			byte[] buffer = new byte[bytesPerSecond > 0 ? (int) Math.min(BUFFER_SIZE, bytesPerSecond) : BUFFER_SIZE];
+			long total = 0;
+			long start = System.nanoTime();
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				total += read;
+				if (bytesPerSecond > 0) {
+					long expectedNanos = total * 1_000_000_000L / bytesPerSecond;
+					long sleepNanos = expectedNanos - (System.nanoTime() - start);
+					if (sleepNanos > 0) {
+						Thread.sleep(Duration.ofNanos(sleepNanos));
+					}
+				}
+			}
+			return total;
+		}
+	}
+
+	long uploadText(long size) throws IOException, InterruptedException {
+		StringBuilder content = new StringBuilder((int) size);
+		while (content.length() < size) {
+			content.append((char) TEXT_LINE[content.length() % TEXT_LINE.length]);
+		}
+		String form = "content=" + URLEncoder.encode(content.toString(), StandardCharsets.UTF_8) + "&remark=load";
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/texts/upload"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		check(response);
+		return size;
+	}
+
+	// 列表接口返回JSON，按gzip协商时统计的是压缩后的字节数
+	long list(String path) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Accept-Encoding", "gzip")
+				.GET()
+				.build();
+		HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		check(response);
+		return response.body().length;
+	}
+
+	private static void check(HttpResponse<?> response) throws IOException {
+		if (response.statusCode() / 100 != 2) {
+			throw new IOException("HTTP " + response.statusCode() + " for " + response.uri());
+		}
+	}
+
+	private static byte[] randomBlock(Random random) {
+		byte[] block = new byte[BUFFER_SIZE];
+		random.nextBytes(block);
+		return block;
+	}
+
+	private static byte[] textBlock() {
+		byte[] block = new byte[BUFFER_SIZE];
+		for (int i = 0; i < block.length; i++) {
+			block[i] = TEXT_LINE[i % TEXT_LINE.length];
+		}
+		return block;
+	}
+
+	private static final class BlockInputStream extends InputStream {
+		private final byte[] block;
+
+		private final long size;
+
+		private long position;
+
+		BlockInputStream(byte[] block, long size) {
+			this.block = block;
+			this.size = size;
+		}
+
+		@Override
+		public int read() {
+			if (position >= size) {
+				return -1;
+			}
+			return block[(int) (position++ % block.length)] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (position >= size) {
+				return -1;
+			}
+			int offset = (int) (position % block.length);
+			int n = (int) Math.min(Math.min(len, block.length - offset), size - position);
+			System.arraycopy(block, offset, b, off, n);
+			position += n;
+			return n;
+		}
+	}
+}
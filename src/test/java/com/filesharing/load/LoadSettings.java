@@ -0,0 +1,107 @@
+package com.filesharing.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+// 压测参数，通过 -Dload.xxx 系统属性覆盖，例如 ./gradlew loadTest -Dload.concurrency=200
+final class LoadSettings {
+
+	enum Operation {
+		UPLOAD_FILE, DOWNLOAD_FILE, UPLOAD_TEXT, LIST_FILES, LIST_TEXTS
+	}
+
+	final Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30));
+
+	final int concurrency = Integer.getInteger("load.concurrency", 64);
+
+	// 持续以低速读取下载内容的客户端数，验证慢速客户端不会拖慢其他请求
+	final int slowClients = Integer.getInteger("load.slowClients", 0);
+
+	final long slowClientBytesPerSecond = parseSize(System.getProperty("load.slowClientRate", "64KB"));
+
+	final int seedFiles = Integer.getInteger("load.seedFiles", 20);
+
+	// 下载请求中落在最近上传的少量热点文件上的比例
+	final double hotRatio = Double.parseDouble(System.getProperty("load.hotRatio", "0.8"));
+
+	final int hotFiles = Integer.getInteger("load.hotFiles", 10);
+
+	// 上传文件中可压缩文本文件的比例
+	final double textFileRatio = Double.parseDouble(System.getProperty("load.textFileRatio", "0.3"));
+
+	final String acceptEncoding = System.getProperty("load.acceptEncoding", "deflate, gzip");
+
+	final String reportFile = System.getProperty("load.report", "build/reports/load/load-test.json");
+
+	final Weighted<Operation> mix = Weighted.parse(
+			System.getProperty("load.mix", "UPLOAD_FILE:15,DOWNLOAD_FILE:50,UPLOAD_TEXT:10,LIST_FILES:15,LIST_TEXTS:10"),
+			value -> Operation.valueOf(value.toUpperCase(Locale.ROOT)));
+
+	final Weighted<Long> fileSizes = Weighted.parse(
+			System.getProperty("load.fileSizes", "4KB:40,256KB:35,4MB:20,64MB:5"), LoadSettings::parseSize);
+
+	final Weighted<Long> textSizes = Weighted.parse(
+			System.getProperty("load.textSizes", "256B:50,4KB:40,64KB:10"), LoadSettings::parseSize);
+
+	static long parseSize(String value) {
+		String size = value.trim().toUpperCase(Locale.ROOT);
+		long unit = 1;
+		if (size.endsWith("GB")) {
+			unit = 1024L * 1024 * 1024;
+		} else if (size.endsWith("MB")) {
+			unit = 1024L * 1024;
+		} else if (size.endsWith("KB")) {
+			unit = 1024L;
+		}
+		String number = size.replaceAll("[A-Z]+$", "");
+		return Long.parseLong(number) * unit;
+	}
+
+	@Override
+	public String toString() {
+		return "duration=" + duration.toSeconds() + "s, concurrency=" + concurrency + ", slowClients=" + slowClients
+				+ ", mix=" + System.getProperty("load.mix", "default")
+				+ ", fileSizes=" + System.getProperty("load.fileSizes", "default");
+	}
+
+	// 按权重随机选择，格式为 value:weight,value:weight
+	static final class Weighted<T> {
+		private final List<T> values = new ArrayList<>();
+
+		private final List<Integer> cumulative = new ArrayList<>();
+
+		private int total;
+
+		static <T> Weighted<T> parse(String spec, Function<String, T> parser) {
+			Weighted<T> weighted = new Weighted<>();
+			for (String part : spec.split(",")) {
+				String[] pair = part.trim().split(":");
+				int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+				if (weight <= 0) {
+					continue;
+				}
+				weighted.total += weight;
+				weighted.values.add(parser.apply(pair[0].trim()));
+				weighted.cumulative.add(weighted.total);
+			}
+			if (weighted.values.isEmpty()) {
+				throw new IllegalArgumentException("No weighted values in " + spec);
+			}
+			return weighted;
+		}
+
+		T pick(Random random) {
+			int target = random.nextInt(total);
+			for (int i = 0; i < values.size(); i++) {
+				if (target < cumulative.get(i)) {
+					return values.get(i);
+				}
+			}
+			return values.get(values.size() - 1);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.filesharing.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// 端到端压测：在随机端口启动完整应用，按配置的并发数和请求比例持续发送HTTP请求
+// 不随普通测试运行，使用 ./gradlew loadTest 执行；压测客户端与服务端在同一个JVM中，GC和堆统计包含两者
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.hibernate.ddl-auto=create",
+		"spring.jpa.show-sql=false",
+		"spring.h2.console.enabled=false",
+		"logging.level.root=WARN"
+})
+class LoadTest {
+
+	private static final Path ROOT = createRoot();
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + ROOT.resolve("db").toAbsolutePath());
+		registry.add("app.storage.local-root", () -> ROOT.resolve("blobs").toString());
+		registry.add("app.upload.session-dir", () -> ROOT.resolve("sessions").toString());
+	}
+
+	@Test
+	void mixedWorkload() throws Exception {
+		LoadSettings settings = new LoadSettings();
+		LoadClient client = new LoadClient(port, settings.acceptEncoding);
+		System.out.println("Load test against port " + port + ": " + settings);
+
+		// 预先上传一批文件作为下载目标
+		List<Long> fileIds = new ArrayList<>();
+		Random seedRandom = new Random(42);
+		for (int i = 0; i < settings.seedFiles; i++) {
+			long size = settings.fileSizes.pick(seedRandom);
+			fileIds.add(client.uploadFile(size, seedRandom.nextDouble() < settings.textFileRatio, seedRandom));
+		}
+		List<Long> sharedIds = Collections.synchronizedList(fileIds);
+
+		ResourceSnapshot before = ResourceSnapshot.take();
+		long startNanos = System.nanoTime();
+		long deadline = startNanos + settings.duration.toNanos();
+		LatencyRecorder total = new LatencyRecorder();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<LatencyRecorder>> workers = new ArrayList<>();
+			for (int i = 0; i < settings.concurrency; i++) {
+				workers.add(executor.submit(() -> runWorker(client, settings, sharedIds, deadline)));
+			}
+			for (int i = 0; i < settings.slowClients; i++) {
+				workers.add(executor.submit(() -> runSlowClient(client, settings, sharedIds, deadline)));
+			}
+			for (Future<LatencyRecorder> worker : workers) {
+				total.merge(worker.get());
+			}
+		}
+		double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+		ResourceSnapshot after = ResourceSnapshot.take();
+
+		Map<String, Object> report = report(settings, total, elapsedSeconds, before, after);
+		writeReport(settings, report);
+
+		assertTrue(total.series().values().stream().anyMatch(s -> s.count() > 0), "No request completed");
+		assertEquals(0, total.totalErrors(), "Requests failed during the load test, see the report");
+	}
+
+	private LatencyRecorder runWorker(LoadClient client, LoadSettings settings, List<Long> fileIds, long deadline) {
+		LatencyRecorder recorder = new LatencyRecorder();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			LoadSettings.Operation operation = settings.mix.pick(random);
+			long start = System.nanoTime();
+			long bytes = 0;
+			boolean success = true;
+			try {
+				switch (operation) {
+					case UPLOAD_FILE -> {
+						bytes = settings.fileSizes.pick(random);
+						fileIds.add(client.uploadFile(bytes, random.nextDouble() < settings.textFileRatio, random));
+					}
+					case DOWNLOAD_FILE -> bytes = client.download(pickFile(settings, fileIds, random), 0);
+					case UPLOAD_TEXT -> bytes = client.uploadText(settings.textSizes.pick(random));
+					case LIST_FILES -> bytes = client.list("/api/files?limit=50");
+					case LIST_TEXTS -> bytes = client.list("/api/texts?limit=50");
+				}
+			} catch (IOException e) {
+				success = false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			recorder.record(operation.name().toLowerCase(Locale.ROOT), System.nanoTime() - start, bytes, success);
+		}
+		return recorder;
+	}
+
+	private LatencyRecorder runSlowClient(LoadClient client, LoadSettings settings, List<Long> fileIds, long deadline) {
+		LatencyRecorder recorder = new LatencyRecorder();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			long start = System.nanoTime();
+			try {
+				long bytes = client.download(pickFile(settings, fileIds, random), settings.slowClientBytesPerSecond);
+				recorder.record("slow_download", System.nanoTime() - start, bytes, true);
+			} catch (IOException e) {
+				recorder.record("slow_download", System.nanoTime() - start, 0, false);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return recorder;
+	}
+
+	// 大部分下载集中在最近上传的少量文件上，模拟被广泛分享的链接
+	private long pickFile(LoadSettings settings, List<Long> fileIds, Random random) {
+		synchronized (fileIds) {
+			int size = fileIds.size();
+			if (random.nextDouble() < settings.hotRatio) {
+				return fileIds.get(random.nextInt(Math.min(settings.hotFiles, size)));
+			}
+			return fileIds.get(random.nextInt(size));
+		}
+	}
+
+	private Map<String, Object> report(LoadSettings settings, LatencyRecorder total, double elapsedSeconds,
+									   ResourceSnapshot before, ResourceSnapshot after) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("durationSeconds", elapsedSeconds);
+		report.put("concurrency", settings.concurrency);
+		report.put("slowClients", settings.slowClients);
+		Map<String, Object> operations = new LinkedHashMap<>();
+		System.out.printf("%-15s %9s %7s %10s %10s %10s %10s %10s %10s%n",
+				"operation", "count", "errors", "ops/s", "MB/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+		total.series().forEach((name, series) -> {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("count", series.count());
+			row.put("errors", series.errors());
+			row.put("throughputPerSecond", series.count() / elapsedSeconds);
+			row.put("megabytesPerSecond", series.bytes() / elapsedSeconds / (1024 * 1024));
+			row.put("p50Millis", series.percentileMillis(50));
+			row.put("p90Millis", series.percentileMillis(90));
+			row.put("p99Millis", series.percentileMillis(99));
+			row.put("maxMillis", series.percentileMillis(100));
+			operations.put(name, row);
+			System.out.printf("%-15s %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f %10.2f%n", name,
+					series.count(), series.errors(), row.get("throughputPerSecond"), row.get("megabytesPerSecond"),
+					row.get("p50Millis"), row.get("p90Millis"), row.get("p99Millis"), row.get("maxMillis"));
+		});
+		report.put("operations", operations);
+
+		Map<String, Object> jvm = new LinkedHashMap<>();
+		jvm.put("gcCount", after.gcCount - before.gcCount);
+		jvm.put("gcTimeMillis", after.gcTimeMillis - before.gcTimeMillis);
+		jvm.put("heapUsedBytes", after.heapUsed);
+		jvm.put("heapCommittedBytes", after.heapCommitted);
+		jvm.put("heapPeakBytes", after.heapPeak);
+		jvm.put("heapMaxBytes", Runtime.getRuntime().maxMemory());
+		report.put("jvm", jvm);
+		System.out.println("GC: " + jvm.get("gcCount") + " collections, " + jvm.get("gcTimeMillis") + " ms; heap peak "
+				+ after.heapPeak / (1024 * 1024) + " MB of " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+		return report;
+	}
+
+	private void writeReport(LoadSettings settings, Map<String, Object> report) throws IOException {
+		Path file = Path.of(settings.reportFile);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+		System.out.println("Report written to " + file.toAbsolutePath());
+	}
+
+	private static Path createRoot() {
+		try {
+			return Files.createTempDirectory("file-sharing-load");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// GC次数和耗时取前后差值；堆峰值在开始时重置
+	private static final class ResourceSnapshot {
+		private long gcCount;
+
+		private long gcTimeMillis;
+
+		private long heapUsed;
+
+		private long heapCommitted;
+
+		private long heapPeak;
+
+		static ResourceSnapshot take() {
+			ResourceSnapshot snapshot = new ResourceSnapshot();
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				snapshot.gcCount += Math.max(0, gc.getCollectionCount());
+				snapshot.gcTimeMillis += Math.max(0, gc.getCollectionTime());
+			}
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					snapshot.heapPeak += pool.getPeakUsage().getUsed();
+					pool.resetPeakUsage();
+				}
+			}
+			snapshot.heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+			snapshot.heapCommitted = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getCommitted();
+			return snapshot;
+		}
+	}
+}
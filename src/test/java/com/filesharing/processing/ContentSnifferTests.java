@@ -0,0 +1,34 @@
+package com.filesharing.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ContentSnifferTests {
+
+	@Test
+	void detectsTypeFromMagicBytes() {
+		assertEquals("image/png", detect(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0}));
+		assertEquals("image/jpeg", detect(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}));
+		assertEquals("application/pdf", detect("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII)));
+		assertEquals("image/webp", detect("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	void unknownOrTruncatedHeaderIsNotDetected() {
+		assertNull(detect("hello world".getBytes(StandardCharsets.US_ASCII)));
+		// 只读到部分魔数时不能误判
+		assertNull(detect(new byte[] {(byte) 0x89, 'P', 'N'}));
+		assertNull(detect(new byte[0]));
+	}
+
+	private String detect(byte[] content) {
+		byte[] header = new byte[ContentSniffer.HEADER_SIZE];
+		int length = Math.min(content.length, header.length);
+		System.arraycopy(content, 0, header, 0, length);
+		return ContentSniffer.detect(header, length);
+	}
+}
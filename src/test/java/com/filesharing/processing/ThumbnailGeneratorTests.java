@@ -0,0 +1,55 @@
+package com.filesharing.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.filesharing.config.ProcessingConfig;
+import com.filesharing.model.FileThumbnail;
+
+class ThumbnailGeneratorTests {
+
+	private final ProcessingConfig processingConfig = new ProcessingConfig();
+
+	private final ThumbnailGenerator generator = new ThumbnailGenerator();
+
+	@BeforeEach
+	void setUp() {
+		processingConfig.setThumbnailSize(64);
+		ReflectionTestUtils.setField(generator, "processingConfig", processingConfig);
+	}
+
+	@Test
+	void scalesLongestSideAndKeepsAspectRatio() throws Exception {
+		FileThumbnail thumbnail = generator.generate(new ByteArrayInputStream(image(800, 400, "png")), "image/png");
+
+		assertNotNull(thumbnail);
+		assertEquals(64, thumbnail.getWidth());
+		assertEquals(32, thumbnail.getHeight());
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.getContent()));
+		assertEquals(64, decoded.getWidth());
+	}
+
+	@Test
+	void skipsImagesAboveThePixelLimit() throws Exception {
+		processingConfig.setMaxImagePixels(1000);
+
+		assertNull(generator.generate(new ByteArrayInputStream(image(100, 100, "jpeg")), "image/jpeg"));
+	}
+
+	private byte[] image(int width, int height, String format) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,29 @@
+package com.filesharing.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TokenizerTests {
+
+	@Test
+	void splitsCjkIntoUnigramsAndBigrams() {
+		Set<String> terms = Tokenizer.indexTerms("季度报告_Q3-2024.PDF", "财务部");
+
+		assertTrue(terms.containsAll(List.of("季度", "度报", "报告", "季", "告", "q3", "2024", "pdf", "财务", "务部")));
+		// 全角字符按NFKC归一化后与半角相同
+		assertEquals(Tokenizer.indexTerms("ＡＢＣ１２３"), Set.of("abc123"));
+	}
+
+	@Test
+	void queryUsesBigramsAndLongestTermsFirst() {
+		assertEquals(List.of("report", "季度", "度报", "报告"), Tokenizer.queryTerms("季度报告 report"));
+		assertEquals(List.of("猫"), Tokenizer.queryTerms("猫"));
+		assertTrue(Tokenizer.queryTerms(" ,. ").isEmpty());
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.filesharing.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.filesharing.exception.QuotaExceededException;
+import com.filesharing.metrics.TransferMetrics;
+import com.filesharing.model.FileEntity;
+import com.filesharing.processing.FileProcessingService;
+import com.filesharing.repository.FileRepository;
+import com.filesharing.repository.FileThumbnailRepository;
+import com.filesharing.search.SearchIndexService;
+import com.filesharing.storage.BlobReferenceService;
+import com.filesharing.storage.BlobStore;
+import com.filesharing.storage.CompressionService;
+import com.filesharing.storage.StoredBlob;
+import com.filesharing.util.ChunkRecordingOutputStream;
+import com.filesharing.util.StreamUtil;
+import com.filesharing.util.SyntheticInputStream;
+
+@ExtendWith(MockitoExtension.class)
+class FileServiceTests {
+
+	@Mock
+	private FileRepository fileRepository;
+
+	@Mock
+	private BlobStore blobStore;
+
+	@Mock
+	private BlobReferenceService blobReferenceService;
+
+	@Mock
+	private CompressionService compressionService;
+
+	@Mock
+	private HotFileCache hotFileCache;
+
+	@Mock
+	private TransferMetrics transferMetrics;
+
+	@Mock
+	private QuotaService quotaService;
+
+	@Mock
+	private FileProcessingService fileProcessingService;
+
+	@Mock
+	private FileThumbnailRepository fileThumbnailRepository;
+
+	@Mock
+	private SearchIndexService searchIndexService;
+
+	@InjectMocks
+	private FileService fileService;
+
+	@Test
+	void storeFileStreamsUploadWithoutBufferingOnHeap() throws Exception {
+		long size = SyntheticInputStream.MULTI_GB_SIZE;
+		MultipartFile file = mock(MultipartFile.class);
+		when(file.getOriginalFilename()).thenReturn("big.bin");
+		when(file.getContentType()).thenReturn("application/octet-stream");
+		when(file.getInputStream()).thenReturn(new SyntheticInputStream(size));
+		// 存储端按块消费上传流，记录单次写入的最大块
+		ChunkRecordingOutputStream sink = new ChunkRecordingOutputStream();
+		when(blobReferenceService.store(any(InputStream.class))).thenAnswer(invocation ->
+				new StoredBlob("a".repeat(64), StreamUtil.copy(invocation.getArgument(0), sink)));
+		when(fileRepository.save(any(FileEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		FileEntity stored = fileService.storeFile(file, null, null);
+
+		verify(file, never()).getBytes();
+		assertEquals("a".repeat(64), stored.getStorageKey());
+		verify(blobReferenceService).store(any(InputStream.class));
+		assertEquals(size, sink.getTotal());
+		assertEquals(size, stored.getFileSize());
+		assertTrue(sink.getMaxChunk() <= StreamUtil.CHUNK_SIZE);
+	}
+
+	@Test
+	void storeFileReleasesBlobWhenQuotaExceeded() throws Exception {
+		MultipartFile file = mock(MultipartFile.class);
+		when(file.getOriginalFilename()).thenReturn("a.bin");
+		when(file.getInputStream()).thenReturn(new SyntheticInputStream(1024));
+		when(blobReferenceService.store(any(InputStream.class))).thenAnswer(invocation ->
+				new StoredBlob("b".repeat(64), StreamUtil.copy(invocation.getArgument(0), OutputStream.nullOutputStream())));
+		doThrow(new QuotaExceededException("Storage quota exceeded")).when(quotaService).charge("client", 1024, 1);
+
+		assertThrows(QuotaExceededException.class,
+				() -> fileService.storeFile(file, null, null, null, null, "client"));
+
+		verify(blobReferenceService).release("b".repeat(64));
+		verify(fileRepository, never()).save(any(FileEntity.class));
+	}
+
+	@Test
+	void storeFilesChargesQuotaOnceAndSavesInOneCall() throws Exception {
+		List<MultipartFile> files = List.of(smallFile("a.bin"), smallFile("b.bin"), smallFile("c.bin"));
+		when(blobReferenceService.store(any(InputStream.class))).thenAnswer(invocation ->
+				new StoredBlob("c".repeat(64), StreamUtil.copy(invocation.getArgument(0), OutputStream.nullOutputStream())));
+		when(fileRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		List<FileEntity> stored = fileService.storeFiles(files, "batch", null, null, null, "client");
+
+		assertEquals(3, stored.size());
+		verify(quotaService).charge("client", 3 * 1024, 3);
+		verify(fileRepository).saveAll(anyList());
+		verify(fileRepository, never()).save(any(FileEntity.class));
+	}
+
+	@Test
+	void deleteFilesDoesNotLoadEntities() {
+		List<Object[]> rows = List.of(
+				new Object[] {1L, "d".repeat(64), "client", 100L},
+				new Object[] {2L, "e".repeat(64), "client", 50L});
+		when(fileRepository.findDeleteInfo(List.of(1L, 2L, 3L))).thenReturn(rows);
+
+		assertEquals(2, fileService.deleteFiles(List.of(1L, 2L, 3L)));
+
+		verify(fileRepository, never()).findById(any());
+		verify(fileRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+		verify(quotaService).release("client", 150L, 2);
+		verify(blobReferenceService).release("d".repeat(64));
+		verify(blobReferenceService).release("e".repeat(64));
+	}
+
+	private MultipartFile smallFile(String name) throws Exception {
+		MultipartFile file = mock(MultipartFile.class);
+		when(file.getOriginalFilename()).thenReturn(name);
+		when(file.getInputStream()).thenReturn(new SyntheticInputStream(1024));
+		return file;
+	}
+
+}
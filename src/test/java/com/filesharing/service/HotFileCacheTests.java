@@ -0,0 +1,61 @@
+package com.filesharing.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.filesharing.config.CacheConfig;
+import com.filesharing.model.FileEntity;
+
+class HotFileCacheTests {
+
+	private final CacheConfig cacheConfig = new CacheConfig();
+
+	private final HotFileCache cache = new HotFileCache();
+
+	@BeforeEach
+	void setUp() {
+		cacheConfig.setMaxSize(4096);
+		cacheConfig.setMaxEntrySize(2048);
+		ReflectionTestUtils.setField(cache, "cacheConfig", cacheConfig);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedByWeight() {
+		cache.put(file(1L), cache.stamp());
+		cache.put(file(2L), cache.stamp());
+		cache.putContent(1L, new byte[2048], cache.stamp());
+		// 访问1使2成为最久未访问的条目
+		assertNotNull(cache.get(1L));
+
+		cache.put(file(3L), cache.stamp());
+		cache.putContent(3L, new byte[512], cache.stamp());
+
+		assertNull(cache.get(2L));
+		assertNotNull(cache.getContent(1L));
+		assertNotNull(cache.getContent(3L));
+		assertTrue((long) cache.getStats().get("bytes") <= cacheConfig.getMaxSize());
+		assertEquals(1L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void staleLoadIsNotCachedAfterInvalidation() {
+		long stamp = cache.stamp();
+		cache.invalidate(1L);
+		cache.put(file(1L), stamp);
+
+		assertNull(cache.get(1L));
+		assertEquals(1L, cache.getStats().get("misses"));
+	}
+
+	private FileEntity file(Long id) {
+		FileEntity file = new FileEntity("f" + id + ".txt", "text/plain", "a".repeat(64), 10, null, null);
+		file.setId(id);
+		return file;
+	}
+}
@@ -0,0 +1,85 @@
+package com.filesharing.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.filesharing.config.CompressionConfig;
+import com.filesharing.model.TextEntity;
+import com.filesharing.repository.TextRepository;
+import com.filesharing.search.SearchIndexService;
+import com.filesharing.storage.CompressionService;
+
+@ExtendWith(MockitoExtension.class)
+class TextServiceTests {
+
+	@Mock
+	private TextRepository textRepository;
+
+	@Mock
+	private SearchIndexService searchIndexService;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Spy
+	private CompressionService compressionService = new CompressionService();
+
+	@InjectMocks
+	private TextService textService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(compressionService, "compressionConfig", new CompressionConfig());
+	}
+
+	@Test
+	void storeStreamKeepsOnlyCompressedContent() throws Exception {
+		byte[] content = "2024-01-01 INFO request handled in 3ms\n".repeat(20_000).getBytes(StandardCharsets.UTF_8);
+		when(textRepository.saveAndFlush(any(TextEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		textService.storeText(new ByteArrayInputStream(content), content.length, "log", null, null);
+
+		ArgumentCaptor<TextEntity> saved = ArgumentCaptor.forClass(TextEntity.class);
+		verify(textRepository).saveAndFlush(saved.capture());
+		assertNull(saved.getValue().getCompressedContent());
+		TextEntity text = saved.getValue();
+		assertNull(text.getContent());
+		assertEquals(CompressionService.DEFLATE, text.getEncoding());
+		assertEquals((long) content.length, text.getByteCount());
+		assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), text.getContentHash());
+	}
+
+	@Test
+	void storeStreamRejectsTextAboveLimit() {
+		byte[] content = new byte[256 * 1024];
+
+		assertThrows(RuntimeException.class,
+				() -> textService.storeText(new ByteArrayInputStream(content), 64 * 1024, null, null, null));
+		verify(textRepository, never()).saveAndFlush(any(TextEntity.class));
+	}
+}
@@ -0,0 +1,92 @@
+package com.filesharing.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.filesharing.model.FileEntity;
+import com.filesharing.storage.CompressionService;
+
+@ExtendWith(MockitoExtension.class)
+class ZipArchiveServiceTests {
+
+	@Mock
+	private FileService fileService;
+
+	@Mock
+	private CompressionService compressionService;
+
+	@InjectMocks
+	private ZipArchiveService zipArchiveService;
+
+	@Test
+	void storesIncompressibleEntriesAndRenamesDuplicates() throws Exception {
+		byte[] image = "not really a png".getBytes(StandardCharsets.UTF_8);
+		byte[] text = "hello hello hello".getBytes(StandardCharsets.UTF_8);
+		FileEntity png = file(1L, "../photo.png", "image/png", image);
+		FileEntity legacy = file(2L, "dir/photo.png", "image/png", image);
+		legacy.setCrc32(null);
+		FileEntity txt = file(3L, "notes.txt", "text/plain", text);
+		when(compressionService.isCompressible(any(), eq("image/png"))).thenReturn(false);
+		when(compressionService.isCompressible(any(), eq("text/plain"))).thenReturn(true);
+		stubContent(png, image);
+		stubContent(legacy, image);
+		stubContent(txt, text);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long written = zipArchiveService.write(List.of(png, legacy, txt), out);
+
+		assertEquals(out.size(), written);
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ZipEntry entry = zip.getNextEntry();
+			assertEquals("photo.png", entry.getName());
+			assertEquals(ZipEntry.STORED, entry.getMethod());
+			assertArrayEquals(image, zip.readAllBytes());
+			entry = zip.getNextEntry();
+			assertEquals("photo (1).png", entry.getName());
+			assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+			assertArrayEquals(image, zip.readAllBytes());
+			entry = zip.getNextEntry();
+			assertEquals("notes.txt", entry.getName());
+			assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+			assertArrayEquals(text, zip.readAllBytes());
+			assertNull(zip.getNextEntry());
+		}
+	}
+
+	private FileEntity file(Long id, String name, String type, byte[] content) {
+		FileEntity file = new FileEntity(name, type, "a".repeat(64), content.length, null, null);
+		file.setId(id);
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		file.setCrc32(crc.getValue());
+		return file;
+	}
+
+	private void stubContent(FileEntity file, byte[] content) throws Exception {
+		when(fileService.getContentLength(file)).thenReturn((long) content.length);
+		when(fileService.writeContent(eq(file), eq(0L), anyLong(), any())).thenAnswer(invocation -> {
+			invocation.getArgument(3, OutputStream.class).write(content);
+			return (long) content.length;
+		});
+	}
+}
@@ -0,0 +1,122 @@
+package com.filesharing.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.filesharing.config.StorageConfig;
+import com.filesharing.model.BlobRecord;
+import com.filesharing.repository.BlobRecordRepository;
+
+class BlobReferenceServiceTests {
+
+	@TempDir
+	Path root;
+
+	// 以内存中的表代替blobs表，语义与BlobRecordRepository中的语句一致
+	private final Map<String, BlobRecord> table = new ConcurrentHashMap<>();
+
+	@Test
+	void reuploadDuringPurgeNeverReferencesDeletedBlob() throws Exception {
+		LocalBlobStore blobStore = new LocalBlobStore(root);
+		StorageConfig storageConfig = new StorageConfig();
+		storageConfig.setBlobGcGraceMinutes(0);
+		BlobReferenceService service = new BlobReferenceService();
+		ReflectionTestUtils.setField(service, "blobRecordRepository", repository());
+		ReflectionTestUtils.setField(service, "blobStore", blobStore);
+		ReflectionTestUtils.setField(service, "storageConfig", storageConfig);
+		byte[] content = "same content".getBytes(StandardCharsets.UTF_8);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 200; i++) {
+				// 上一轮的引用已释放，等待清理
+				String key = blobStore.put(new ByteArrayInputStream(content)).getKey();
+				table.put(key, record(key, 0, System.currentTimeMillis() - 1000));
+
+				CountDownLatch start = new CountDownLatch(1);
+				Future<StoredBlob> upload = executor.submit(() -> {
+					start.await();
+					return service.store(new ByteArrayInputStream(content));
+				});
+				Future<?> purge = executor.submit(() -> {
+					start.await();
+					service.purgeUnreferencedBlobs();
+					return null;
+				});
+				start.countDown();
+				StoredBlob stored = upload.get();
+				purge.get();
+
+				assertEquals(1, table.get(stored.getKey()).getRefCount());
+				assertTrue(blobStore.exists(stored.getKey()), "referenced blob was deleted in round " + i);
+				table.clear();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private BlobRecordRepository repository() {
+		BlobRecordRepository repository = mock(BlobRecordRepository.class);
+		when(repository.incrementRefCount(anyString())).thenAnswer(invocation -> {
+			BlobRecord updated = table.computeIfPresent(invocation.getArgument(0),
+					(key, record) -> record(key, record.getRefCount() + 1, null));
+			return updated != null ? 1 : 0;
+		});
+		when(repository.insertFirstReference(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+			String key = invocation.getArgument(0);
+			if (table.putIfAbsent(key, record(key, 1, null)) != null) {
+				throw new DataIntegrityViolationException("duplicate key " + key);
+			}
+			return 1;
+		});
+		when(repository.findByRefCountLessThanEqualAndReleaseTimeLessThan(eq(0), anyLong(), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					long cutoff = invocation.getArgument(1);
+					return table.values().stream()
+							.filter(record -> record.getRefCount() <= 0 && record.getReleaseTime() < cutoff)
+							.toList();
+				});
+		when(repository.deleteIfUnreferenced(anyString())).thenAnswer(invocation -> {
+			String key = invocation.getArgument(0);
+			boolean[] deleted = new boolean[1];
+			table.computeIfPresent(key, (k, record) -> {
+				deleted[0] = record.getRefCount() <= 0;
+				return deleted[0] ? null : record;
+			});
+			return deleted[0] ? 1 : 0;
+		});
+		return repository;
+	}
+
+	private static BlobRecord record(String key, int refCount, Long releaseTime) {
+		BlobRecord record = new BlobRecord();
+		record.setStorageKey(key);
+		record.setBlobSize(12L);
+		record.setRefCount(refCount);
+		record.setReleaseTime(releaseTime);
+		return record;
+	}
+}
@@ -0,0 +1,49 @@
+package com.filesharing.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalBlobStoreTests {
+
+	@TempDir
+	Path root;
+
+	@Test
+	void putIsContentAddressed() throws Exception {
+		LocalBlobStore store = new LocalBlobStore(root);
+		byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+
+		StoredBlob first = store.put(new ByteArrayInputStream(content));
+		StoredBlob second = store.put(new ByteArrayInputStream(content));
+
+		assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", first.getKey());
+		assertEquals(first.getKey(), second.getKey());
+		assertEquals(content.length, store.size(first.getKey()));
+		assertTrue(store.resolve(first.getKey()).startsWith(root.resolve("2c").resolve("f2")));
+		try (InputStream in = store.open(first.getKey())) {
+			assertArrayEquals(content, in.readAllBytes());
+		}
+
+		store.delete(first.getKey());
+		assertFalse(store.exists(first.getKey()));
+	}
+
+	@Test
+	void rejectsKeysOutsideTheStore() throws Exception {
+		LocalBlobStore store = new LocalBlobStore(root);
+
+		assertThrows(IllegalArgumentException.class, () -> store.open("../../etc/passwd"));
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.filesharing.util;
+
+import java.io.OutputStream;
+
+public class ChunkRecordingOutputStream extends OutputStream {
+	private long total;
+	private int maxChunk;
+
+	@Override
+	public void write(int b) {
+		total++;
+		maxChunk = Math.max(maxChunk, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		total += len;
+		maxChunk = Math.max(maxChunk, len);
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public int getMaxChunk() {
+		return maxChunk;
+	}
+}
@@ -0,0 +1,34 @@
+package com.filesharing.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ConditionalRequestUtilTests {
+
+	private static final String ETAG = "\"2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824\"";
+
+	@Test
+	void ifNoneMatchTakesPrecedenceOverIfModifiedSince() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/1");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG);
+		assertTrue(ConditionalRequestUtil.isNotModified(request, ETAG, 1_700_000_000_123L));
+
+		request = new MockHttpServletRequest("GET", "/api/files/1");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, 1_800_000_000_000L);
+		assertFalse(ConditionalRequestUtil.isNotModified(request, ETAG, 1_700_000_000_123L));
+	}
+
+	@Test
+	void ifModifiedSinceComparesAtSecondPrecision() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/1");
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, 1_700_000_000_000L);
+		assertTrue(ConditionalRequestUtil.isNotModified(request, ETAG, 1_700_000_000_123L));
+		assertFalse(ConditionalRequestUtil.isNotModified(request, ETAG, 1_700_000_001_000L));
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.filesharing.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+
+class PasswordUtilTests {
+
+	@Test
+	void cachedVerificationStillRejectsWrongPasswords() {
+		// PasswordUtil的计时器注册在全局注册表上，加入后的注册表只统计之后的验证
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		Metrics.addRegistry(registry);
+		try {
+			String encoded = PasswordUtil.encryptPassword("secret");
+
+			assertTrue(PasswordUtil.verifyPassword("secret", encoded));
+			assertEquals(1, verifications(registry, "false"));
+			assertEquals(0, verifications(registry, "true"));
+
+			// 第二次验证命中缓存，不再计算BCrypt
+			assertTrue(PasswordUtil.verifyPassword("secret", encoded));
+			assertEquals(1, verifications(registry, "false"));
+			assertEquals(1, verifications(registry, "true"));
+
+			assertFalse(PasswordUtil.verifyPassword("Secret", encoded));
+			assertFalse(PasswordUtil.verifyPassword("secret", PasswordUtil.encryptPassword("other")));
+			assertEquals(3, verifications(registry, "false"));
+			assertEquals(1, verifications(registry, "true"));
+		} finally {
+			Metrics.removeRegistry(registry);
+		}
+	}
+
+	private long verifications(SimpleMeterRegistry registry, String cached) {
+		return registry.get("filesharing.password.verify").tag("cached", cached).timer().count();
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.filesharing.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamUtilTests {
+
+	@Test
+	void copyStreamsMultiGigabyteInputInFixedChunks() throws Exception {
+		ChunkRecordingOutputStream out = new ChunkRecordingOutputStream();
+
+		long copied = StreamUtil.copy(new SyntheticInputStream(SyntheticInputStream.MULTI_GB_SIZE), out);
+
+		assertEquals(SyntheticInputStream.MULTI_GB_SIZE, copied);
+		assertEquals(SyntheticInputStream.MULTI_GB_SIZE, out.getTotal());
+		assertTrue(out.getMaxChunk() <= StreamUtil.CHUNK_SIZE, "chunk exceeded: " + out.getMaxChunk());
+	}
+
+	@Test
+	void transferSendsRequestedFileRegion(@TempDir Path dir) throws Exception {
+		Path file = Files.writeString(dir.resolve("data.txt"), "0123456789");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			assertEquals(4, StreamUtil.transfer(channel, 3, 4, out));
+		}
+
+		assertArrayEquals("3456".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.filesharing.util;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class SyntheticInputStream extends InputStream {
+	// 大于任何byte[]能容纳的长度，整体缓冲时必然失败
+	public static final long MULTI_GB_SIZE = 3L * 1024 * 1024 * 1024;
+
+	private long remaining;
+
+	public SyntheticInputStream(long size) {
+		this.remaining = size;
+	}
+
+	@Override
+	public int read() {
+		if (remaining <= 0) {
+			return -1;
+		}
+		remaining--;
+		return 'x';
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int n = (int) Math.min(len, remaining);
+		Arrays.fill(b, off, off + n, (byte) 'x');
+		remaining -= n;
+		return n;
+	}
+}
@@ -0,0 +1,28 @@
+package com.filesharing.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class TextStatsInputStreamTests {
+
+	@Test
+	void streamStatsMatchStringStats() throws IOException {
+		// 预览边界落在多字节字符中间
+		String content = "a" + "中文\n".repeat(400) + "末行";
+		TextStatsInputStream in = new TextStatsInputStream(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		in.transferTo(OutputStream.nullOutputStream());
+
+		assertEquals(TextPreviewUtil.countLines(content), in.getLineCount());
+		assertEquals(401L, in.getLineCount());
+		assertEquals(TextPreviewUtil.preview(content), in.getPreview());
+		assertEquals(TextPreviewUtil.PREVIEW_LENGTH, in.getPreview().length());
+	}
+
+}